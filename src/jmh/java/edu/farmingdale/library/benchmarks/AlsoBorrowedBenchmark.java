@@ -0,0 +1,85 @@
+package edu.farmingdale.library.benchmarks;
+
+import edu.farmingdale.library.model.AlsoBorrowedIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Also-borrowed index updates and queries once it holds a large loan history; each should stay well under a millisecond
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class AlsoBorrowedBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"1000000"})
+    public int loans;
+
+    @Param({"100000"})
+    public int titles;
+
+    @Param({"100000"})
+    public int students;
+
+    private AlsoBorrowedIndex index;
+    private String[] isbns;
+    private String[] emails;
+    private SplittableRandom random;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new AlsoBorrowedIndex();
+        random = new SplittableRandom(11);
+        for (int i = 0; i < loans; i++) {
+            index.recordBorrow(email(random.nextInt(students)), isbn(popularTitle()));
+        }
+
+        isbns = new String[QUERIES];
+        emails = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            isbns[i] = isbn(popularTitle());
+            emails[i] = email(random.nextInt(students));
+        }
+    }
+
+    private int nextQuery() {
+        return next++ & (QUERIES - 1);
+    }
+
+    // Skewed like real circulation: half of all loans go to the most popular tenth of the titles
+    private int popularTitle() {
+        int hot = Math.max(1, titles / 10);
+        return random.nextBoolean() ? random.nextInt(hot) : random.nextInt(titles);
+    }
+
+    private static String isbn(int title) {
+        return String.valueOf(9780000000000L + title);
+    }
+
+    private static String email(int student) {
+        return "s" + student + "@farmingdale.edu";
+    }
+
+    @Benchmark
+    public void recordBorrow() {
+        int i = nextQuery();
+        index.recordBorrow(emails[i], isbns[(i * 31 + next) & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public List<String> alsoBorrowed() {
+        return index.alsoBorrowed(isbns[nextQuery()], 10);
+    }
+
+    @Benchmark
+    public List<String> recommendFor() {
+        return index.recommendFor(emails[nextQuery()], 10);
+    }
+}
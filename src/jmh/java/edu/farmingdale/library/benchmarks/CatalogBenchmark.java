@@ -0,0 +1,130 @@
+package edu.farmingdale.library.benchmarks;
+
+import edu.farmingdale.library.model.Book;
+import edu.farmingdale.library.model.Library;
+import edu.farmingdale.library.model.LoanService;
+import edu.farmingdale.library.model.Student;
+import edu.farmingdale.library.persistence.InMemoryCatalogRepository;
+import edu.farmingdale.library.persistence.InMemoryStudentRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Lookup, search, sort and circulation paths over a loaded library
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class CatalogBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    public int copies;
+
+    @Param({"100000"})
+    public int students;
+
+    private Library library;
+    private LoanService loans;
+    private String[] titleQueries;
+    private String[] shortTitleQueries;
+    private String[] authorQueries;
+    private String[] isbns;
+    private Student borrower;
+    private Book copy;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<Book> books = SyntheticData.books(copies, 42);
+        InMemoryStudentRepository roster = new InMemoryStudentRepository();
+        roster.saveAll(SyntheticData.students(students, books, 0, 7));
+
+        library = new Library(new InMemoryCatalogRepository(books), roster);
+        library.load();
+        loans = library.getLoanService();
+
+        SplittableRandom random = new SplittableRandom(1);
+        titleQueries = new String[QUERIES];
+        shortTitleQueries = new String[QUERIES];
+        authorQueries = new String[QUERIES];
+        isbns = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            Book b = books.get(random.nextInt(books.size()));
+            String[] words = b.getBookTitle().split(" ");
+            titleQueries[i] = words[random.nextInt(words.length)].toLowerCase();
+            shortTitleQueries[i] = titleQueries[i].substring(0, Math.min(2, titleQueries[i].length()));
+            authorQueries[i] = b.getAuthor().split(" ")[1];
+            isbns[i] = b.getISBN();
+        }
+
+        borrower = library.getStudentByEmail("s0@farmingdale.edu");
+        copy = books.get(books.size() / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        library.shutdown();
+    }
+
+    private int nextQuery() {
+        return next++ & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public List<Book> searchByTitle() {
+        return library.searchByTitle(titleQueries[nextQuery()]);
+    }
+
+    // Shorter than a gram, so answered from the grams containing the query
+    @Benchmark
+    public List<Book> searchByTitleShort() {
+        return library.searchByTitle(shortTitleQueries[nextQuery()]);
+    }
+
+    // Baseline for the two above: filtering every copy, as search did before the index
+    @Benchmark
+    public List<Book> streamScanByTitle() {
+        return streamScan(titleQueries[nextQuery()]);
+    }
+
+    @Benchmark
+    public List<Book> streamScanByTitleShort() {
+        return streamScan(shortTitleQueries[nextQuery()]);
+    }
+
+    private List<Book> streamScan(String query) {
+        return library.getAllBooks().stream()
+                .filter(b -> b.getBookTitle().toLowerCase(Locale.ROOT).contains(query))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Book> searchByAuthor() {
+        return library.searchByAuthor(authorQueries[nextQuery()]);
+    }
+
+    @Benchmark
+    public Book getBookByIsbn() {
+        return library.getBookByIsbn(isbns[nextQuery()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Book> getBooksSortedByTitle() {
+        return library.getBooksSortedByTitle();
+    }
+
+    @Benchmark
+    public LoanService.LoanResult borrowReturnCycle() {
+        loans.borrow(borrower, copy);
+        return loans.returnBook(borrower, copy);
+    }
+}
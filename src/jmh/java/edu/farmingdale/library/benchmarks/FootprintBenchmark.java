@@ -0,0 +1,127 @@
+package edu.farmingdale.library.benchmarks;
+
+import edu.farmingdale.library.model.Book;
+import edu.farmingdale.library.model.ColumnarCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Heap per copy and lookup speed of a Book-per-copy map versus the columnar catalog
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class FootprintBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "1000000"})
+    public int copies;
+
+    private HashMap<Integer, Book> objects;
+    private ColumnarCatalog columns;
+    private int[] ids;
+    private int next;
+    private long objectBytes;
+    private long columnarBytes;
+
+    // Retained heap of each layout, reported as secondary results next to the lookup times
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double objectBytesPerCopy;
+        public double columnarBytesPerCopy;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Book> source = SyntheticData.books(copies, 42);
+
+        // Books read from the CSV do not share strings between copies, so neither do these
+        long before = usedHeap();
+        objects = new HashMap<>();
+        for (Book b : source) {
+            objects.put(b.getID(), new Book(b.getID(), copy(b.getISBN()), copy(b.getBookTitle()),
+                    copy(b.getAuthor()), true, null));
+        }
+        long afterObjects = usedHeap();
+        columns = new ColumnarCatalog(copies);
+        for (Book b : source) {
+            columns.add(b.getID(), copy(b.getISBN()), copy(b.getBookTitle()), copy(b.getAuthor()), true);
+        }
+        long afterColumns = usedHeap();
+
+        objectBytes = afterObjects - before;
+        columnarBytes = afterColumns - afterObjects;
+
+        SplittableRandom random = new SplittableRandom(1);
+        ids = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            ids[i] = source.get(random.nextInt(source.size())).getID();
+        }
+    }
+
+    // The source list stays live throughout, so each difference is only what the new layout retains
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    // new String(String) would share the character array
+    private static String copy(String s) {
+        return new String(s.toCharArray());
+    }
+
+    private int nextId() {
+        return ids[next++ & (QUERIES - 1)];
+    }
+
+    @Benchmark
+    public Book objectGetById(Footprint footprint) {
+        report(footprint);
+        return objects.get(nextId());
+    }
+
+    @Benchmark
+    public Book columnarGetById(Footprint footprint) {
+        report(footprint);
+        return columns.getBookByID(nextId());
+    }
+
+    @Benchmark
+    public boolean objectIsInLibrary(Footprint footprint) {
+        report(footprint);
+        return objects.get(nextId()).getInLibrary();
+    }
+
+    @Benchmark
+    public boolean columnarIsInLibrary(Footprint footprint) {
+        report(footprint);
+        return columns.isInLibrary(nextId());
+    }
+
+    @Benchmark
+    public String objectGetTitle(Footprint footprint) {
+        report(footprint);
+        return objects.get(nextId()).getBookTitle();
+    }
+
+    @Benchmark
+    public String columnarGetTitle(Footprint footprint) {
+        report(footprint);
+        return columns.getTitle(nextId());
+    }
+
+    private void report(Footprint footprint) {
+        footprint.objectBytesPerCopy = (double) objectBytes / copies;
+        footprint.columnarBytesPerCopy = (double) columnarBytes / copies;
+    }
+}
@@ -0,0 +1,107 @@
+package edu.farmingdale.library.benchmarks;
+
+import edu.farmingdale.library.model.Book;
+import edu.farmingdale.library.model.Library;
+import edu.farmingdale.library.model.Student;
+import edu.farmingdale.library.persistence.CsvCatalogRepository;
+import edu.farmingdale.library.persistence.InMemoryCatalogRepository;
+import edu.farmingdale.library.persistence.InMemoryStudentRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Startup paths: parsing the catalog CSV and syncing copy state with student loans
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class LoadBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int copies;
+
+    @Param({"100000"})
+    public int students;
+
+    private Path csv;
+    private List<Book> books;
+    private List<Student> roster;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        books = SyntheticData.books(copies, 42);
+        csv = SyntheticData.writeCsv(books);
+        roster = SyntheticData.students(students, books, 2, 7);
+    }
+
+    /**
+     * A loaded but unsynced library, rebuilt before every call: a sync lends
+     * copies and writes copy IDs back to the roster, so a second sync over
+     * the same state would measure a different, cheaper path.
+     */
+    @State(Scope.Thread)
+    public static class Unsynced {
+        Library library;
+
+        @Setup(Level.Invocation)
+        public void setUp(LoadBenchmark data) {
+            List<Book> fresh = new ArrayList<>(data.books.size());
+            for (Book b : data.books) {
+                fresh.add(new Book(b.getID(), b.getISBN(), b.getBookTitle(), b.getAuthor(), true, null));
+            }
+            InMemoryStudentRepository store = new InMemoryStudentRepository();
+            store.saveAll(data.roster);
+            library = new Library(new InMemoryCatalogRepository(fresh), store);
+            library.loadBooks();
+            library.loadStudents();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            library.shutdown();
+        }
+    }
+
+    @Benchmark
+    public int loadBooksFromCSV() {
+        Library library = new Library(new CsvCatalogRepository(csv), new InMemoryStudentRepository());
+        library.loadBooks();
+        library.shutdown();
+        return library.getAllBooks().size();
+    }
+
+    @Benchmark
+    public Library syncBookAvailability(Unsynced state) {
+        state.library.syncBookAvailability();
+        return state.library;
+    }
+
+    // Baseline: group the copies by ISBN with a stream, then give each loan the first copy still in the library
+    @Benchmark
+    public int syncBookAvailabilityStreamScan(Unsynced state) {
+        Map<String, List<Book>> byIsbn = state.library.getAllBooks().stream()
+                .collect(Collectors.groupingBy(Book::getISBN));
+        int lent = 0;
+        for (Student student : state.library.getAllStudents()) {
+            for (String isbn : student.getCurrentBooks()) {
+                Book copy = byIsbn.getOrDefault(isbn, List.of()).stream()
+                        .filter(Book::getInLibrary)
+                        .findFirst()
+                        .orElse(null);
+                if (copy != null) {
+                    copy.setInLibrary(false);
+                    copy.setPossesion(student);
+                    lent++;
+                }
+            }
+        }
+        return lent;
+    }
+}
@@ -0,0 +1,92 @@
+package edu.farmingdale.library.benchmarks;
+
+import edu.farmingdale.library.model.Book;
+import edu.farmingdale.library.model.Student;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Reproducible fake catalogs and rosters for the benchmarks
+final class SyntheticData {
+
+    static final int COPIES_PER_TITLE = 3;
+
+    private static final String[] WORDS = {
+            "the", "night", "river", "garden", "secret", "house", "war", "peace", "shadow", "light",
+            "winter", "summer", "king", "queen", "lost", "city", "ocean", "mountain", "silent", "storm",
+            "fire", "ice", "dream", "stone", "glass", "forest", "empire", "road", "star", "moon",
+            "heart", "blood", "iron", "golden", "last", "first", "hidden", "broken", "wild", "dark",
+            "song", "tale", "history", "journey", "island", "letters", "orchard", "tower", "bridge", "harbor"
+    };
+
+    private static final String[] FIRST_NAMES = {
+            "Jane", "John", "Mary", "Toni", "George", "Emily", "Mark", "Ursula", "James", "Zadie",
+            "Haruki", "Chimamanda", "Leo", "Virginia", "Gabriel", "Octavia", "Kazuo", "Isabel", "Cormac", "Donna"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Austen", "Green", "Shelley", "Morrison", "Orwell", "Bronte", "Twain", "Le Guin", "Baldwin", "Smith",
+            "Murakami", "Adichie", "Tolstoy", "Woolf", "Marquez", "Butler", "Ishiguro", "Allende", "McCarthy", "Tartt"
+    };
+
+    private SyntheticData() {}
+
+    static List<Book> books(int copies, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Book> books = new ArrayList<>(copies);
+        String isbn = null, title = null, author = null;
+        for (int i = 0; i < copies; i++) {
+            if (i % COPIES_PER_TITLE == 0) {
+                isbn = String.valueOf(9780000000000L + i / COPIES_PER_TITLE);
+                title = title(random);
+                author = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + random.nextInt(5000);
+            }
+            books.add(new Book(isbn, title, author, true, null));
+        }
+        return books;
+    }
+
+    // Each student holds loansPerStudent ISBNs drawn from the catalog, with no copy IDs, so loading picks the copies
+    static List<Student> students(int count, List<Book> catalog, int loansPerStudent, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> isbns = new ArrayList<>(loansPerStudent);
+            for (int j = 0; j < loansPerStudent; j++) {
+                isbns.add(catalog.get(random.nextInt(catalog.size())).getISBN());
+            }
+            students.add(new Student(100000 + i, "Password1!", "s" + i + "@farmingdale.edu", "Student", "Test", isbns));
+        }
+        return students;
+    }
+
+    static Path writeCsv(List<Book> books) throws IOException {
+        Path file = Files.createTempFile("catalog", ".csv");
+        file.toFile().deleteOnExit();
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("ISBN,Title,Author\n");
+            for (Book b : books) {
+                out.write(b.getISBN() + ",\"" + b.getBookTitle() + "\",\"" + b.getAuthor() + "\"\n");
+            }
+        }
+        return file;
+    }
+
+    private static String title(SplittableRandom random) {
+        int words = 2 + random.nextInt(3);
+        StringBuilder title = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (w > 0) title.append(' ');
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return title.toString();
+    }
+}
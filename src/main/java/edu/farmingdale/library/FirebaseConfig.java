@@ -1,6 +1,8 @@
 package edu.farmingdale.library;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.firestore.FirestoreOptions;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.cloud.FirestoreClient;
@@ -13,6 +15,15 @@ public class FirebaseConfig {
     private static Firestore db;
 
     public static Firestore getDB() {
+        if (db == null && System.getenv("FIRESTORE_EMULATOR_HOST") != null) {
+            // Local emulator for tests and demos: no key file, project id from -Dlibrary.firebaseProject
+            db = FirestoreOptions.newBuilder()
+                    .setProjectId(System.getProperty("library.firebaseProject", "demo-library"))
+                    .setEmulatorHost(System.getenv("FIRESTORE_EMULATOR_HOST"))
+                    .setCredentials(NoCredentials.getInstance())
+                    .build()
+                    .getService();
+        }
         if (db == null) {
             try {
                 InputStream serviceAccount = FirebaseConfig.class.getResourceAsStream("/firebase-key.json");
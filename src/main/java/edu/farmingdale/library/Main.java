@@ -8,6 +8,8 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 public class Main extends Application {
+
+    private static long launchStart;
     @Override
     public void start(Stage stage) throws Exception {
         System.out.println(Main.class.getResource("/edu/farmingdale/library/login-screen.fxml"));
@@ -20,13 +22,21 @@ public class Main extends Application {
         stage.setMinWidth(550);
         stage.setMinHeight(550);
         stage.show();
+        System.out.println("⏱ First window shown " + (System.nanoTime() - launchStart) / 1_000_000 + " ms after launch.");
+
 
 
 
+    }
 
+    @Override
+    public void stop() {
+        // Student updates are written in the background; don't lose the last few on exit
+        Library.getInstance().shutdown();
     }
 
     public static void main(String[] args) {
+        launchStart = System.nanoTime();
         Library library = Library.getInstance();
 
 
@@ -0,0 +1,104 @@
+package edu.farmingdale.library.controllers;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Runs searches off the FX Application Thread. Requests made while typing are
+ * debounced, and a newer request interrupts the one still running. Rows are
+ * handed back to the FX thread in batches as the search finds them, so the
+ * first rows show up before a large scan is complete; the search's final,
+ * ranked list then replaces them. All public methods must be called on the FX thread.
+ */
+public class SearchPipeline<T> {
+
+    @FunctionalInterface
+    public interface Search<T> {
+        // Passes rows to found as they turn up, then returns every row in its final order
+        List<T> run(Consumer<List<T>> found) throws Exception;
+    }
+
+    // Not a fixed pool, so a new search never waits behind a superseded one that is still winding down
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "search-pipeline");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final PauseTransition debounce;
+    private final Consumer<List<T>> onFirstChunk;
+    private final Consumer<List<T>> onNextChunk;
+
+    private Search<T> pending;
+    private Future<?> running;
+    private long generation;
+
+    // onFirstChunk replaces what is shown; onNextChunk appends to it
+    public SearchPipeline(Duration debounceDelay, Consumer<List<T>> onFirstChunk, Consumer<List<T>> onNextChunk) {
+        this.debounce = new PauseTransition(debounceDelay);
+        this.onFirstChunk = onFirstChunk;
+        this.onNextChunk = onNextChunk;
+        debounce.setOnFinished(e -> start(pending));
+    }
+
+    // Runs the search once input has been quiet for the debounce delay
+    public void submit(Search<T> search) {
+        cancel();
+        pending = search;
+        debounce.playFromStart();
+    }
+
+    // Runs the search right away, e.g. for the Search button
+    public void submitNow(Search<T> search) {
+        cancel();
+        start(search);
+    }
+
+    // Drops the debounced and the running search; nothing more is delivered for them
+    public void cancel() {
+        debounce.stop();
+        pending = null;
+        generation++;
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+    }
+
+    private void start(Search<T> search) {
+        if (search == null) return;
+
+        long current = ++generation;
+        running = EXECUTOR.submit(() -> {
+            boolean[] shown = new boolean[1]; // only touched on this thread
+            List<T> results;
+            try {
+                results = search.run(batch -> {
+                    if (!batch.isEmpty()) {
+                        deliver(current, !shown[0], batch);
+                        shown[0] = true;
+                    }
+                });
+            } catch (CancellationException e) {
+                return;
+            } catch (Exception e) {
+                results = List.of();
+            }
+
+            if (Thread.currentThread().isInterrupted()) return;
+            deliver(current, true, results);
+        });
+    }
+
+    private void deliver(long current, boolean first, List<T> rows) {
+        Platform.runLater(() -> {
+            if (current != generation) return; // superseded
+            (first ? onFirstChunk : onNextChunk).accept(rows);
+        });
+    }
+}
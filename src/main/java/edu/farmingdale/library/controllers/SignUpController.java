@@ -2,6 +2,7 @@ package edu.farmingdale.library.controllers;
 
 import edu.farmingdale.library.model.Library;
 import edu.farmingdale.library.model.Student;
+import edu.farmingdale.library.model.StudentValidator;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
@@ -34,7 +35,7 @@ public class SignUpController {
             return;
         }
 
-        if (!nameIsValid(fullNameField.getText())) {
+        if (!StudentValidator.isFullName(fullNameField.getText())) {
             showError("Please enter a first and last name.");
             return;
         }
@@ -54,7 +55,7 @@ public class SignUpController {
             return;
         }
 
-        if (!includesSigns(passwordField.getText())) {
+        if (!StudentValidator.isStrongPassword(passwordField.getText())) {
             showError("Password must contain a symbol, number, uppercase, and lowercase.");
             return;
         }
@@ -64,7 +65,7 @@ public class SignUpController {
             return;
         }
 
-        String[] parts = fullNameField.getText().trim().split("\\s+");
+        String[] parts = StudentValidator.splitFullName(fullNameField.getText());
         Library.getInstance().addStudent(
                 new Student(passwordField.getText(), emailField.getText(), parts[1], parts[0])
         );
@@ -105,22 +106,8 @@ public class SignUpController {
         scene.setRoot(newRoot);
     }
 
-    private boolean includesSigns(String str){
-        return str != null && str.matches("^(?=.*[A-Z])(?=.*[a-z])(?=.*\\d)(?=.*[^a-zA-Z0-9]).{8,}$");
-    }
-
-    private boolean nameIsValid(String str){
-        return str != null && str.matches("^[A-Za-z]+\\s+[A-Za-z]+$");
-    }
-
     public static boolean emailIsValid(String name, String email) {
-        if (name == null || email == null) return false;
-        name = name.trim();
-        email = email.trim().toLowerCase();
-        if (!name.matches("^[A-Za-z]+\\s+[A-Za-z]+$")) return false;
-
-        String[] parts = name.split("\\s+");
-        char initial = Character.toLowerCase(parts[1].charAt(0));
-        return email.startsWith(String.valueOf(initial)) && email.endsWith("@farmingdale.edu");
+        if (!StudentValidator.isFullName(name)) return false;
+        return StudentValidator.isSchoolEmail(StudentValidator.splitFullName(name)[1], email);
     }
 }
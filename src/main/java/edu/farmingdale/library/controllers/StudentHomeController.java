@@ -1,89 +1,177 @@
 package edu.farmingdale.library.controllers;
 
 import edu.farmingdale.library.model.Book;
+import edu.farmingdale.library.model.Hold;
+import edu.farmingdale.library.model.HoldService;
 import edu.farmingdale.library.model.Library;
 import edu.farmingdale.library.model.Student;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.util.Duration;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
 public class StudentHomeController {
 
+    // Rows are appended in pages so the table shows up before a large catalog is fully listed
+    private static final int PAGE_SIZE = 2000;
+
+    // The next page is fetched once the student has scrolled this far down the rows loaded so far
+    private static final double PAGE_AHEAD = 0.8;
+
+    // Titles shown under "Students also borrowed"
+    private static final int RECOMMENDATIONS = 8;
+
+    // How long typing has to pause before the search runs
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(200);
+
+    // Matches handed to the table at a time while a search is still scanning
+    private static final int SEARCH_BATCH = 500;
+
+    // Same order as Library.getBooksSortedByTitle, so returned copies can be put back in place
+    private static final Comparator<Book> TITLE_ORDER =
+            Comparator.comparing(Book::getBookTitle).thenComparingInt(Book::getID);
+
     private Student student;
 
+    // The tables keep these lists for their whole life; borrow and return edit single rows
+    private final ObservableList<Book> availableBooks = FXCollections.observableArrayList();
+    private final ObservableList<Book> myBooks = FXCollections.observableArrayList();
+    private final ObservableList<Hold> myHolds = FXCollections.observableArrayList();
+    private final ObservableList<Book> recommendedBooks = FXCollections.observableArrayList();
+    private boolean showingAllBooks;
+    private boolean allPagesLoaded;
+    private int loadGeneration;
+    private Book pageCursor;
+    private ScrollBar availableScrollBar;
+    // Set while a picked recommendation fills in the search controls, so their listeners don't search as well
+    private boolean fillingSearch;
+
+    private final SearchPipeline<Book> searchPipeline =
+            new SearchPipeline<>(SEARCH_DEBOUNCE, this::showSearchResults, this::appendSearchResults);
+
+    // Hold changes arrive on the hold service's thread
+    private final HoldService.Listener holdListener = hold -> {
+        if (student != null && hold.isFor(student)) {
+            Platform.runLater(() -> holdChanged(hold));
+        }
+    };
+
     @FXML private Label welcomeLabel;
     @FXML private TableView<Book> availableBooksTable;
-    @FXML private TableColumn<Book, Integer> colAvailableID;
-    @FXML private TableColumn<Book, String> colAvailableTitle;
-    @FXML private TableColumn<Book, String> colAvailableAuthor;
+    @FXML private TableColumn<Book, Book> colAvailableID;
+    @FXML private TableColumn<Book, Book> colAvailableTitle;
+    @FXML private TableColumn<Book, Book> colAvailableAuthor;
     @FXML private TableColumn<Book, Void> colAvailableAction;
+    @FXML private ListView<Book> recommendedList;
 
     @FXML private TableView<Book> myBooksTable;
-    @FXML private TableColumn<Book, Integer> colMyID;
-    @FXML private TableColumn<Book, String> colMyTitle;
-    @FXML private TableColumn<Book, String> colMyAuthor;
+    @FXML private TableColumn<Book, Book> colMyID;
+    @FXML private TableColumn<Book, Book> colMyTitle;
+    @FXML private TableColumn<Book, Book> colMyAuthor;
     @FXML private TableColumn<Book, String> colMyDueDate;
     @FXML private TableColumn<Book, Void> colMyReturn;
 
+    @FXML private TableView<Hold> myHoldsTable;
+    @FXML private TableColumn<Hold, String> colHoldTitle;
+    @FXML private TableColumn<Hold, String> colHoldStatus;
+    @FXML private TableColumn<Hold, Void> colHoldAction;
+
     @FXML private ComboBox<String> searchTypeBox;
     @FXML private TextField searchField;
 
     @FXML
     private void initialize() {
+        availableBooksTable.setItems(availableBooks);
+        myBooksTable.setItems(myBooks);
+        myHoldsTable.setItems(myHolds);
+        recommendedList.setItems(recommendedBooks);
+
+        // The scroll bar only exists once the table has a skin
+        availableBooksTable.skinProperty().addListener((obs, oldSkin, skin) -> {
+            if (skin != null) {
+                Platform.runLater(this::watchAvailableScroll);
+            }
+        });
+
         // Available books columns
-        colAvailableID.setCellValueFactory(data ->
-                new javafx.beans.property.SimpleIntegerProperty(data.getValue().getID()).asObject());
-        colAvailableTitle.setCellValueFactory(data ->
-                new javafx.beans.property.SimpleStringProperty(data.getValue().getBookTitle()));
-        colAvailableAuthor.setCellValueFactory(data ->
-                new javafx.beans.property.SimpleStringProperty(data.getValue().getAuthor()));
+        textColumn(colAvailableID, b -> String.valueOf(b.getID()));
+        textColumn(colAvailableTitle, Book::getBookTitle);
+        textColumn(colAvailableAuthor, Book::getAuthor);
+
+        // Picking a recommendation looks its title up, so the copies show with their Borrow/Hold buttons
+        recommendedList.setCellFactory(param -> new ListCell<>() {
+            @Override
+            protected void updateItem(Book book, boolean empty) {
+                super.updateItem(book, empty);
+                setText(empty || book == null ? null : book.getBookTitle() + "\n" + book.getAuthor());
+            }
+        });
+        recommendedList.getSelectionModel().selectedItemProperty().addListener((obs, old, book) -> {
+            if (book != null) {
+                fillingSearch = true;
+                try {
+                    searchTypeBox.setValue("Title");
+                    searchField.setText(book.getBookTitle());
+                } finally {
+                    fillingSearch = false;
+                }
+                onSearch();
+                // So the same title can be picked again
+                Platform.runLater(() -> recommendedList.getSelectionModel().clearSelection());
+            }
+        });
 
         // Add borrow button column
         colAvailableAction.setCellFactory(param -> new TableCell<>() {
             private final Button borrowBtn = new Button("Borrow");
+            private final Button holdBtn = new Button("Place Hold");
 
             {
                 borrowBtn.getStyleClass().add("primary");
-                borrowBtn.setOnAction(event -> {
-                    Book book = getTableView().getItems().get(getIndex());
-                    borrowBook(book);
-                });
+                borrowBtn.setOnAction(event -> borrowBook(getTableRow().getItem()));
+                holdBtn.setOnAction(event -> placeHold(getTableRow().getItem()));
             }
 
             @Override
             protected void updateItem(Void item, boolean empty) {
                 super.updateItem(item, empty);
-                if (empty) {
+                Book book = getTableRow() == null ? null : getTableRow().getItem();
+                if (empty || book == null) {
                     setGraphic(null);
+                } else if (canBorrow(book)) {
+                    setGraphic(borrowBtn);
                 } else {
-                    Book book = getTableView().getItems().get(getIndex());
-                    if (book.getInLibrary()) {
-                        setGraphic(borrowBtn);
-                    } else {
-                        setGraphic(new Label("Checked Out"));
-                    }
+                    setGraphic(holdBtn);
                 }
             }
         });
 
         // My books columns
-        colMyID.setCellValueFactory(data ->
-                new javafx.beans.property.SimpleIntegerProperty(data.getValue().getID()).asObject());
-        colMyTitle.setCellValueFactory(data ->
-                new javafx.beans.property.SimpleStringProperty(data.getValue().getBookTitle()));
-        colMyAuthor.setCellValueFactory(data ->
-                new javafx.beans.property.SimpleStringProperty(data.getValue().getAuthor()));
-        colMyDueDate.setCellValueFactory(data -> {
-            LocalDate dueDate = Library.getInstance().getDueDate(data.getValue());
-            String dueDateStr = (dueDate != null) ? dueDate.toString() : "N/A";
-            return new javafx.beans.property.SimpleStringProperty(dueDateStr);
-        });
+        textColumn(colMyID, b -> String.valueOf(b.getID()));
+        textColumn(colMyTitle, Book::getBookTitle);
+        textColumn(colMyAuthor, Book::getAuthor);
+        // The value is the text itself, so a renewed or newly overdue loan shows on the next refresh
+        colMyDueDate.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(dueDateText(data.getValue())));
 
         // Add return button column
         colMyReturn.setCellFactory(param -> new TableCell<>() {
@@ -91,10 +179,7 @@ public class StudentHomeController {
 
             {
                 returnBtn.getStyleClass().add("primary");
-                returnBtn.setOnAction(event -> {
-                    Book book = getTableView().getItems().get(getIndex());
-                    returnBook(book);
-                });
+                returnBtn.setOnAction(event -> returnBook(getTableRow().getItem()));
             }
 
             @Override
@@ -108,38 +193,186 @@ public class StudentHomeController {
             }
         });
 
+        // My holds columns
+        colHoldTitle.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(holdTitle(data.getValue())));
+        colHoldStatus.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(holdStatus(data.getValue())));
+        colHoldAction.setCellFactory(param -> new TableCell<>() {
+            private final Button cancelBtn = new Button("Cancel");
+
+            {
+                cancelBtn.setOnAction(event -> cancelHold(getTableRow().getItem()));
+            }
+
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(empty ? null : cancelBtn);
+            }
+        });
+
         // Initialize search type combo box
         searchTypeBox.setValue("Title");
+
+        // Search as the user types; the Search button still runs it immediately
+        searchField.textProperty().addListener((obs, oldText, newText) -> {
+            if (!fillingSearch) searchAsYouType();
+        });
+        searchTypeBox.valueProperty().addListener((obs, oldType, newType) -> {
+            if (!fillingSearch) searchAsYouType();
+        });
     }
 
-    private void borrowBook(Book book) {
-        if (book.getInLibrary()) {
-            book.setInLibrary(false);
-            book.setPossesion(student);
-            student.addBook(book.getISBN());
-            Library.getInstance().setDueDate(book, LocalDate.now().plusWeeks(2));
+    // The column's value is the row's Book itself; only the visible cells ask for it, so no per-book cache is kept
+    private void textColumn(TableColumn<Book, Book> column, Function<Book, String> text) {
+        column.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue()));
+        column.setCellFactory(param -> new TableCell<>() {
+            @Override
+            protected void updateItem(Book book, boolean empty) {
+                super.updateItem(book, empty);
+                setText(empty || book == null ? null : text.apply(book));
+            }
+        });
+    }
 
-            // 🆕 Save to Firebase
-            Library.getInstance().updateStudentInFirebase(student);
+    private static String dueDateText(Book book) {
+        LocalDate dueDate = Library.getInstance().getDueDate(book);
+        if (dueDate == null) return "N/A";
+        return dueDate.isBefore(LocalDate.now()) ? dueDate + " (overdue)" : dueDate.toString();
+    }
 
-            refreshTables();
+    private void borrowBook(Book book) {
+        if (book == null) return;
+
+        if (Library.getInstance().getLoanService().borrow(student, book).isSuccess()) {
+            removeAvailable(book);
+            myBooks.add(book);
+            refreshRecommendations();
             showAlert("Success", "Book borrowed successfully!", Alert.AlertType.INFORMATION);
         } else {
+            // Someone else got it first; drop the stale row
+            removeAvailable(book);
             showAlert("Error", "This book is already checked out.", Alert.AlertType.ERROR);
         }
     }
 
     private void returnBook(Book book) {
-        book.setInLibrary(true);
-        book.setPossesion(null);
-        student.removeBook(book.getISBN());
-        Library.getInstance().setDueDate(book, null);
+        if (book == null) return;
+
+        if (Library.getInstance().getLoanService().returnBook(student, book).isSuccess()) {
+            myBooks.remove(book);
+            if (!Library.getInstance().isAvailable(book.getID())) {
+                // Set aside for the next student waiting for the title
+                removeAvailable(book);
+            } else if (showingAllBooks) {
+                insertAvailable(book);
+            } else {
+                onSearch();
+            }
+            showWelcome();
+            showAlert("Success", "Book returned successfully!", Alert.AlertType.INFORMATION);
+        } else {
+            refreshTables();
+            showAlert("Error", "This book is not checked out to you.", Alert.AlertType.ERROR);
+        }
+    }
 
-        // 🆕 Save to Firebase
-        Library.getInstance().updateStudentInFirebase(student);
+    // Free copies, and the copy set aside for this student's hold
+    private boolean canBorrow(Book book) {
+        Library lib = Library.getInstance();
+        return lib.isAvailable(book.getID()) || lib.getHoldService().isSetAsideFor(student, book.getID());
+    }
 
-        refreshTables();
-        showAlert("Success", "Book returned successfully!", Alert.AlertType.INFORMATION);
+    private void placeHold(Book book) {
+        if (book == null) return;
+
+        HoldService holds = Library.getInstance().getHoldService();
+        HoldService.HoldResult result = holds.placeHold(student, book.getISBN());
+        switch (result.status()) {
+            case OK -> {
+                refreshHolds();
+                int ahead = holds.getQueueLength(book.getISBN()) - 1;
+                showAlert("Success", "Hold placed. " + (ahead == 0 ? "You are next in line."
+                        : ahead + " student(s) ahead of you."), Alert.AlertType.INFORMATION);
+            }
+            case AVAILABLE -> {
+                onSearch();
+                showAlert("Error", "A copy of this book is available now; borrow it instead.", Alert.AlertType.ERROR);
+            }
+            case DUPLICATE -> showAlert("Error", "You already have a hold on this book.", Alert.AlertType.ERROR);
+            default -> showAlert("Error", "This book could not be held.", Alert.AlertType.ERROR);
+        }
+    }
+
+    private void cancelHold(Hold hold) {
+        if (hold == null) return;
+
+        Library.getInstance().getHoldService().cancelHold(student, hold.getIsbn());
+        refreshHolds();
+    }
+
+    // Tells the student when a copy is waiting for them, and when they missed the pickup
+    private void holdChanged(Hold hold) {
+        refreshHolds();
+        if (hold.getStatus() == Hold.Status.READY) {
+            notify("Hold Ready", "\"" + holdTitle(hold) + "\" is ready to borrow until " + pickupDate(hold) + ".");
+            Book copy = Library.getInstance().getBookByID(hold.getCopyId());
+            if (copy != null && showingAllBooks) {
+                insertAvailable(copy);
+            }
+        } else if (hold.getStatus() == Hold.Status.EXPIRED) {
+            notify("Hold Expired", "Your hold on \"" + holdTitle(hold) + "\" expired before it was picked up.");
+        }
+    }
+
+    private void refreshHolds() {
+        if (student != null) {
+            myHolds.setAll(Library.getInstance().getHoldService().getHolds(student));
+        }
+    }
+
+    private static String holdTitle(Hold hold) {
+        Book book = Library.getInstance().getBookByIsbn(hold.getIsbn());
+        return (book != null) ? book.getBookTitle() : hold.getIsbn();
+    }
+
+    private static String holdStatus(Hold hold) {
+        return (hold.getStatus() == Hold.Status.READY)
+                ? "Ready until " + pickupDate(hold)
+                : "Waiting";
+    }
+
+    private static LocalDate pickupDate(Hold hold) {
+        return Instant.ofEpochMilli(hold.getReadyUntil()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    // Puts a returned copy back at its sorted position; rows not yet paged in will arrive with their page
+    private void insertAvailable(Book book) {
+        int at = Collections.binarySearch(availableBooks, book, TITLE_ORDER);
+        if (at >= 0) return;
+        if (allPagesLoaded || (pageCursor != null && TITLE_ORDER.compare(book, pageCursor) < 0)) {
+            availableBooks.add(-at - 1, book);
+        }
+    }
+
+    // The full list is in title order, so its row is found by binary search; search results are short and in rank order
+    private void removeAvailable(Book book) {
+        if (showingAllBooks) {
+            int at = Collections.binarySearch(availableBooks, book, TITLE_ORDER);
+            if (at >= 0) {
+                availableBooks.remove(at);
+            }
+        } else {
+            availableBooks.remove(book);
+        }
+    }
+
+    // Like showAlert, but does not block whatever the student is doing
+    private void notify(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.show();
     }
 
     private void showAlert(String title, String message, Alert.AlertType type) {
@@ -152,12 +385,22 @@ public class StudentHomeController {
 
     public void setStudent(Student student) {
         this.student = student;
-        welcomeLabel.setText("Welcome " + student.getFirstName() + "!");
+        showWelcome();
+        Library.getInstance().getHoldService().addListener(holdListener);
         refreshTables();
     }
 
+    // Greeting, plus what the student's overdue books have run up so far
+    private void showWelcome() {
+        long cents = Library.getInstance().getOverdueFines().getFineCents(student);
+        String fines = (cents > 0) ? String.format("   Overdue fines: $%d.%02d", cents / 100, cents % 100) : "";
+        welcomeLabel.setText("Welcome " + student.getFirstName() + "!" + fines);
+    }
+
     @FXML
     private void logOut() throws IOException {
+        searchPipeline.cancel();
+        Library.getInstance().getHoldService().removeListener(holdListener);
         switchScene("/edu/farmingdale/library/welcome.fxml");
     }
 
@@ -167,62 +410,158 @@ public class StudentHomeController {
         scene.setRoot(newRoot);
     }
 
+    // Full reload; only used on login, when the search is cleared, and to recover from stale rows
     private void refreshTables() {
         Library lib = Library.getInstance();
 
-        var availableBooks = lib.getAllBooks().stream()
-                .filter(Book::getInLibrary)
-                .toList();
-        availableBooksTable.setItems(FXCollections.observableArrayList(availableBooks));
+        showAvailablePages();
 
         if (student != null) {
-            var bookList = student.getCurrentBooks()
+            // By copy ID, so two copies of one title show as the two copies actually held
+            var bookList = student.getCurrentCopies()
                     .stream()
-                    .map(isbn -> lib.getBookByIsbn(isbn))
+                    .map(id -> lib.getBookByID(id))
                     .filter(b -> b != null)
                     .toList();
 
-            myBooksTable.setItems(FXCollections.observableArrayList(bookList));
+            myBooks.setAll(bookList);
+            myBooksTable.refresh();
+            refreshHolds();
+            refreshRecommendations();
+        }
+    }
+
+    private void refreshRecommendations() {
+        recommendedBooks.setAll(Library.getInstance().getRecommendedBooks(student, RECOMMENDATIONS));
+    }
+
+    // Shows the first page now; later pages are fetched as the student scrolls, walking the title index by cursor
+    private void showAvailablePages() {
+        int generation = ++loadGeneration;
+        showingAllBooks = true;
+        allPagesLoaded = false;
+        pageCursor = null;
+        availableBooks.clear();
+        appendAvailablePage(generation);
+    }
+
+    // Appends at least a page of borrowable rows, so the table always has enough to scroll
+    private void appendAvailablePage(int generation) {
+        if (generation != loadGeneration || allPagesLoaded) {
+            return;
+        }
+        Library lib = Library.getInstance();
+        int added = 0;
+        while (added < PAGE_SIZE) {
+            List<Book> page = lib.getBooksSortedByTitle(pageCursor, PAGE_SIZE);
+            if (page.isEmpty()) {
+                allPagesLoaded = true;
+                return;
+            }
+            pageCursor = page.get(page.size() - 1);
+            List<Book> rows = page.stream().filter(this::canBorrow).toList();
+            availableBooks.addAll(rows);
+            added += rows.size();
+        }
+    }
+
+    private void watchAvailableScroll() {
+        for (Node node : availableBooksTable.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                availableScrollBar = bar;
+                bar.valueProperty().addListener((obs, oldValue, value) -> loadMoreIfNearEnd());
+                loadMoreIfNearEnd();
+                return;
+            }
         }
     }
 
+    private void loadMoreIfNearEnd() {
+        ScrollBar bar = availableScrollBar;
+        if (bar == null || !showingAllBooks || allPagesLoaded) {
+            return;
+        }
+        double span = bar.getMax() - bar.getMin();
+        if (span <= 0 || bar.getValue() - bar.getMin() >= span * PAGE_AHEAD) {
+            appendAvailablePage(loadGeneration);
+        }
+    }
+
+    private void showSearchResults(List<Book> results) {
+        loadGeneration++;
+        showingAllBooks = false;
+        availableBooks.setAll(results);
+    }
+
+    private void appendSearchResults(List<Book> results) {
+        availableBooks.addAll(results);
+    }
+
     @FXML
     private void onSearch() {
+        SearchPipeline.Search<Book> search = buildSearch();
+        if (search == null) {
+            searchPipeline.cancel();
+            showAvailablePages();
+        } else {
+            searchPipeline.submitNow(search);
+        }
+    }
+
+    private void searchAsYouType() {
+        SearchPipeline.Search<Book> search = buildSearch();
+        if (search == null) {
+            searchPipeline.cancel();
+            showAvailablePages();
+        } else {
+            searchPipeline.submit(search);
+        }
+    }
+
+    // Reads the search controls on the FX thread; the returned query runs on the pipeline's thread
+    private SearchPipeline.Search<Book> buildSearch() {
         Library lib = Library.getInstance();
         String type = searchTypeBox.getValue();
-        String query = searchField.getText().trim();
+        String query = searchField.getText() == null ? "" : searchField.getText().trim();
 
-        if (query.isEmpty()) {
-            refreshTables();
-            return;
+        if (query.isEmpty() || type == null) {
+            return null;
         }
 
-        switch (type) {
-            case "Title" -> {
-                var results = lib.searchByTitle(query).stream()
-                        .filter(Book::getInLibrary)
-                        .toList();
-                availableBooksTable.setItems(FXCollections.observableArrayList(results));
-            }
-            case "Author" -> {
-                var results = lib.searchByAuthor(query).stream()
-                        .filter(Book::getInLibrary)
-                        .toList();
-                availableBooksTable.setItems(FXCollections.observableArrayList(results));
-            }
-            case "ID" -> {
+        return switch (type) {
+            case "Title" -> found -> {
+                Set<String> shownIsbns = new HashSet<>();
+                return withHoldableTitles(lib, lib.searchByTitle(query, SEARCH_BATCH,
+                        batch -> found.accept(withHoldableTitles(lib, batch, shownIsbns))), new HashSet<>());
+            };
+            case "Author" -> found -> {
+                Set<String> shownIsbns = new HashSet<>();
+                return withHoldableTitles(lib, lib.searchByAuthor(query, SEARCH_BATCH,
+                        batch -> found.accept(withHoldableTitles(lib, batch, shownIsbns))), new HashSet<>());
+            };
+            case "ID" -> found -> {
                 try {
-                    int id = Integer.parseInt(query);
-                    Book result = lib.searchById(id);
-                    if (result != null && result.getInLibrary()) {
-                        availableBooksTable.setItems(FXCollections.observableArrayList(result));
-                    } else {
-                        availableBooksTable.setItems(FXCollections.observableArrayList());
-                    }
-                } catch (Exception e) {
-                    availableBooksTable.setItems(FXCollections.observableArrayList());
+                    // Checked-out copies are shown too, so they can be held
+                    Book result = lib.searchById(Integer.parseInt(query));
+                    return (result != null) ? List.of(result) : List.of();
+                } catch (NumberFormatException e) {
+                    return List.of();
                 }
+            };
+            default -> found -> List.of();
+        };
+    }
+
+    // Keeps the free copies, plus one row for each title with every copy out, which can be held; checkedIsbns carries across batches
+    private List<Book> withHoldableTitles(Library lib, List<Book> hits, Set<String> checkedIsbns) {
+        List<Book> rows = new ArrayList<>();
+        for (Book b : hits) {
+            if (canBorrow(b)) {
+                rows.add(b);
+            } else if (checkedIsbns.add(b.getISBN()) && lib.countAvailableCopies(b.getISBN()) == 0) {
+                rows.add(b);
             }
         }
+        return rows;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package edu.farmingdale.library.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Monotonic event count; increments from many threads don't contend
+public final class Counter implements CounterMXBean {
+
+    private final LongAdder count = new LongAdder();
+
+    Counter() {}
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long n) {
+        count.add(n);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
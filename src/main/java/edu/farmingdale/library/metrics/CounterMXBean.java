@@ -0,0 +1,7 @@
+package edu.farmingdale.library.metrics;
+
+// JMX view of a Counter
+public interface CounterMXBean {
+
+    long getCount();
+}
@@ -0,0 +1,18 @@
+package edu.farmingdale.library.metrics;
+
+import java.util.function.LongSupplier;
+
+// A value read on demand, such as a queue depth
+public final class Gauge implements GaugeMXBean {
+
+    private final LongSupplier value;
+
+    Gauge(LongSupplier value) {
+        this.value = value;
+    }
+
+    @Override
+    public long getValue() {
+        return value.getAsLong();
+    }
+}
@@ -0,0 +1,7 @@
+package edu.farmingdale.library.metrics;
+
+// JMX view of a Gauge
+public interface GaugeMXBean {
+
+    long getValue();
+}
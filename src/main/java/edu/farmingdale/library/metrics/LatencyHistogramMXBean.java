@@ -0,0 +1,15 @@
+package edu.farmingdale.library.metrics;
+
+// JMX view of a LatencyHistogram; times are in milliseconds
+public interface LatencyHistogramMXBean {
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+}
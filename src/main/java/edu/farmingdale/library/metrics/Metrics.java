@@ -0,0 +1,58 @@
+package edu.farmingdale.library.metrics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of named latencies, counters and gauges. Callers
+ * look a metric up once, keep it in a static field and record into it on
+ * the hot path. Every metric is also published over JMX as
+ * edu.farmingdale.library:type=Latency|Counter|Gauge,name=...
+ */
+public final class Metrics {
+
+    private static final String JMX_DOMAIN = "edu.farmingdale.library";
+
+    private static final ConcurrentHashMap<String, Object> metrics = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    public static LatencyHistogram latency(String name) {
+        return (LatencyHistogram) metrics.computeIfAbsent(name, n -> publish("Latency", n, new LatencyHistogram()));
+    }
+
+    public static Counter counter(String name) {
+        return (Counter) metrics.computeIfAbsent(name, n -> publish("Counter", n, new Counter()));
+    }
+
+    // Replaces any gauge already registered under the name, e.g. when a new Library is created
+    public static Gauge gauge(String name, LongSupplier value) {
+        Gauge gauge = new Gauge(value);
+        metrics.compute(name, (n, old) -> publish("Gauge", n, gauge));
+        return gauge;
+    }
+
+    // Every metric by name, in name order
+    public static Map<String, Object> snapshot() {
+        return new TreeMap<>(metrics);
+    }
+
+    private static <T> T publish(String type, String name, T metric) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(metric, objectName);
+        } catch (Exception | LinkageError e) {
+            // JMX is optional; the metric still works without it
+        }
+        return metric;
+    }
+}
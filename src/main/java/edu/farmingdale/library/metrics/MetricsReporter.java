@@ -0,0 +1,94 @@
+package edu.farmingdale.library.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodically writes every metric to the log (one INFO record as CSV)
+ * and, if a file is given, appends one CSV row per metric. Enabled from the
+ * command line with -Dlibrary.metrics.intervalSeconds=N and optionally
+ * -Dlibrary.metrics.csv=path.
+ */
+public final class MetricsReporter implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(MetricsReporter.class.getName());
+    private static final String CSV_HEADER = "time,name,type,count,mean_ms,p50_ms,p99_ms,max_ms,value\n";
+
+    private final Path csvFile;
+    private final ScheduledExecutorService executor;
+
+    public MetricsReporter(long intervalSeconds, Path csvFile) {
+        this.csvFile = csvFile;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Starts a reporter if the interval property is set, otherwise returns null
+    public static MetricsReporter fromSystemProperties() {
+        long interval = Long.getLong("library.metrics.intervalSeconds", 0);
+        if (interval <= 0) {
+            return null;
+        }
+        String csv = System.getProperty("library.metrics.csv");
+        return new MetricsReporter(interval, csv == null ? null : Path.of(csv));
+    }
+
+    public void report() {
+        long now = System.currentTimeMillis();
+        StringBuilder rows = new StringBuilder();
+        for (Map.Entry<String, Object> e : Metrics.snapshot().entrySet()) {
+            rows.append(row(now, e.getKey(), e.getValue())).append('\n');
+        }
+        if (LOG.isLoggable(Level.INFO)) {
+            LOG.info("metrics\n" + CSV_HEADER + rows);
+        }
+        if (csvFile != null) {
+            appendCsv(rows.toString());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        report();
+    }
+
+    private static String row(long now, String name, Object metric) {
+        if (metric instanceof LatencyHistogram h) {
+            return String.format(Locale.ROOT, "%d,%s,latency,%d,%.3f,%.3f,%.3f,%.3f,",
+                    now, name, h.getCount(), h.getMeanMillis(), h.getP50Millis(), h.getP99Millis(), h.getMaxMillis());
+        } else if (metric instanceof Counter c) {
+            return now + "," + name + ",counter," + c.getCount() + ",,,,,";
+        } else {
+            return now + "," + name + ",gauge,,,,,," + ((Gauge) metric).getValue();
+        }
+    }
+
+    private void appendCsv(String rows) {
+        try {
+            boolean fresh = !Files.exists(csvFile);
+            try (Writer out = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (fresh) out.write(CSV_HEADER);
+                out.write(rows);
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not write metrics to " + csvFile, e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package edu.farmingdale.library.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * "Students who borrowed this also borrowed" counts, keyed by ISBN. Each
+ * borrow is paired with the last few titles the same student borrowed, and
+ * every pair adds one to both titles' co-borrow counts, so the index is
+ * updated in place and never rebuilt.
+ *
+ * ISBNs and students are interned to dense ints through StringPool, and
+ * each title's co-borrow counts are an IntIntMap, so no key or count is
+ * boxed. A student's history is a small ring of title ints. All public
+ * methods are synchronized.
+ */
+public class AlsoBorrowedIndex {
+
+    // Titles each borrow is paired with; bounds the work per borrow and the pairs per student
+    private static final int HISTORY = 8;
+    private static final int[] NONE = new int[0];
+
+    private final StringPool titles = new StringPool();
+    private final StringPool students = new StringPool();
+    private IntIntMap[] coBorrows = new IntIntMap[1024];
+    private int[][] history = new int[1024][];
+    private int[] historyCount = new int[1024];
+    private long pairs;
+
+    public synchronized void recordBorrow(String email, String isbn) {
+        int title = titles.intern(Library.isbnKey(isbn));
+        int student = students.intern(email.toLowerCase(Locale.ROOT));
+        if (title >= coBorrows.length) {
+            coBorrows = Arrays.copyOf(coBorrows, Math.max(title + 1, coBorrows.length * 2));
+        }
+        if (student >= history.length) {
+            history = Arrays.copyOf(history, Math.max(student + 1, history.length * 2));
+            historyCount = Arrays.copyOf(historyCount, history.length);
+        }
+
+        int[] recent = history[student];
+        if (recent == null) {
+            recent = history[student] = new int[HISTORY];
+        }
+        int count = historyCount[student];
+        int held = Math.min(count, HISTORY);
+        for (int i = 0; i < held; i++) {
+            if (recent[i] == title) {
+                return; // borrowed again; already paired with the same titles
+            }
+        }
+        for (int i = 0; i < held; i++) {
+            countPair(title, recent[i]);
+            countPair(recent[i], title);
+        }
+        pairs += held;
+        recent[count % HISTORY] = title;
+        historyCount[student] = count + 1;
+    }
+
+    // Titles most often borrowed together with the ISBN, best first, as normalized ISBNs
+    public synchronized List<String> alsoBorrowed(String isbn, int limit) {
+        int title = titles.find(Library.isbnKey(isbn));
+        if (title < 0 || coBorrows[title] == null) {
+            return List.of();
+        }
+        return top(coBorrows[title], NONE, limit);
+    }
+
+    /**
+     * Titles borrowed alongside the student's recent ones and not among
+     * them, best first. Counts from each recent title are summed, so a title
+     * that goes with several of them ranks above one that goes with one.
+     */
+    public synchronized List<String> recommendFor(String email, int limit) {
+        int student = students.find(email.toLowerCase(Locale.ROOT));
+        if (student < 0 || history[student] == null) {
+            return List.of();
+        }
+        int[] recent = Arrays.copyOf(history[student], Math.min(historyCount[student], HISTORY));
+        if (recent.length == 1) {
+            IntIntMap only = coBorrows[recent[0]];
+            return (only == null) ? List.of() : top(only, recent, limit);
+        }
+
+        int expected = 0;
+        for (int t : recent) {
+            expected += (coBorrows[t] == null) ? 0 : coBorrows[t].size();
+        }
+        IntIntMap scores = new IntIntMap(expected);
+        for (int t : recent) {
+            IntIntMap counts = coBorrows[t];
+            if (counts == null) {
+                continue;
+            }
+            for (int slot = 0; slot < counts.capacity(); slot++) {
+                int other = counts.keyAt(slot);
+                if (other >= 0) {
+                    scores.add(other, counts.valueAt(slot));
+                }
+            }
+        }
+        return top(scores, recent, limit);
+    }
+
+    public synchronized int getTitleCount() {
+        return titles.size();
+    }
+
+    // Co-borrow pairs counted so far, each pair once
+    public synchronized long getPairCount() {
+        return pairs;
+    }
+
+    private void countPair(int title, int other) {
+        IntIntMap counts = coBorrows[title];
+        if (counts == null) {
+            counts = coBorrows[title] = new IntIntMap();
+        }
+        counts.add(other, 1);
+    }
+
+    // The limit highest counts, highest first, skipping excluded titles; ties go to the lower title int
+    private List<String> top(IntIntMap counts, int[] excluded, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        int[] best = new int[limit];
+        int[] bestCounts = new int[limit];
+        int n = 0;
+        for (int slot = 0; slot < counts.capacity(); slot++) {
+            int title = counts.keyAt(slot);
+            if (title < 0 || contains(excluded, title)) {
+                continue;
+            }
+            int count = counts.valueAt(slot);
+            if (n == limit && !beats(count, title, bestCounts[n - 1], best[n - 1])) {
+                continue;
+            }
+            int at = (n < limit) ? n++ : n - 1;
+            while (at > 0 && beats(count, title, bestCounts[at - 1], best[at - 1])) {
+                best[at] = best[at - 1];
+                bestCounts[at] = bestCounts[at - 1];
+                at--;
+            }
+            best[at] = title;
+            bestCounts[at] = count;
+        }
+
+        List<String> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(titles.get(best[i]));
+        }
+        return out;
+    }
+
+    private static boolean beats(int count, int title, int otherCount, int otherTitle) {
+        return count > otherCount || (count == otherCount && title < otherTitle);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,163 @@
+package edu.farmingdale.library.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * One bit per copy ID, set while the copy is on the shelf. Copy IDs are
+ * handed out sequentially, so the words cover the range from the lowest ID
+ * seen and a catalog of a million copies fits in about 125 KB. Bits flip
+ * with a compare-and-set on their word, so borrows and returns of different
+ * copies never block each other; counting and iterating run a word at a time.
+ * Growing the range takes the write lock, everything else the read lock.
+ */
+public class AvailabilitySet {
+
+    private AtomicLongArray words = new AtomicLongArray(0);
+    private int firstWord;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void set(int id) {
+        update(id, true);
+    }
+
+    public void clear(int id) {
+        update(id, false);
+    }
+
+    // Sets or clears the bit; returns false if it already had that value
+    public boolean update(int id, boolean available) {
+        if (available) {
+            ensureCapacity(id);
+        }
+        lock.readLock().lock();
+        try {
+            int w = (id >> 6) - firstWord;
+            if (w < 0 || w >= words.length()) {
+                return false; // clearing an id that was never set
+            }
+            long bit = 1L << id;
+            while (true) {
+                long old = words.get(w);
+                long next = available ? (old | bit) : (old & ~bit);
+                if (old == next) {
+                    return false;
+                }
+                if (words.compareAndSet(w, old, next)) {
+                    return true;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            int w = (id >> 6) - firstWord;
+            return w >= 0 && w < words.length() && (words.get(w) & (1L << id)) != 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count() {
+        lock.readLock().lock();
+        try {
+            int n = 0;
+            for (int w = 0; w < words.length(); w++) {
+                n += Long.bitCount(words.get(w));
+            }
+            return n;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Visits every set id in ascending order; the action must not set new ids
+    public void forEach(IntConsumer action) {
+        lock.readLock().lock();
+        try {
+            for (int w = 0; w < words.length(); w++) {
+                long word = words.get(w);
+                int base = (w + firstWord) << 6;
+                while (word != 0) {
+                    action.accept(base + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int[] toArray() {
+        IntList ids = new IntList(64);
+        forEach(ids::add);
+        return ids.toArray();
+    }
+
+    // The ids that are set, in the order given; used to narrow ranked search results
+    public int[] retain(int[] ids) {
+        int[] kept = new int[ids.length];
+        int n = 0;
+        lock.readLock().lock();
+        try {
+            for (int id : ids) {
+                int w = (id >> 6) - firstWord;
+                if (w >= 0 && w < words.length() && (words.get(w) & (1L << id)) != 0) {
+                    kept[n++] = id;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return (n == kept.length) ? kept : Arrays.copyOf(kept, n);
+    }
+
+    private void ensureCapacity(int id) {
+        int word = id >> 6;
+        lock.readLock().lock();
+        try {
+            int w = word - firstWord;
+            if (words.length() > 0 && w >= 0 && w < words.length()) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            int length = words.length();
+            if (length == 0) {
+                firstWord = word;
+                words = new AtomicLongArray(16);
+                return;
+            }
+            // Grow by at least half so adding copies in ID order stays amortized O(1)
+            int from = firstWord;
+            int newLength;
+            if (word >= firstWord) {
+                if (word - firstWord < length) {
+                    return; // another thread grew it first
+                }
+                newLength = Math.max(word - firstWord + 1, length + (length >> 1));
+            } else {
+                from = Math.min(word, Math.max(0, firstWord - Math.max(firstWord - word, length >> 1)));
+                newLength = length + (firstWord - from);
+            }
+            AtomicLongArray grown = new AtomicLongArray(newLength);
+            for (int w = 0; w < length; w++) {
+                grown.set(firstWord - from + w, words.get(w));
+            }
+            words = grown;
+            firstWord = from;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package edu.farmingdale.library.model;
 
-import java.util.Objects;
-
 public class Book
         implements Comparable<Book>{
 
@@ -10,18 +8,38 @@ public class Book
     private String ISBN;
     private String bookTitle;
     private String author;
-    private Boolean inLibrary;
-    private Student possesion;
+    private volatile boolean inLibrary;
+    private volatile Student possesion;
 
     public Book(String ISBN, String bookTitle, String author, Boolean inLibrary, Student possesion) {
         this.bookTitle = bookTitle;
         this.author = author;
-        this.inLibrary = inLibrary;
+        this.inLibrary = Boolean.TRUE.equals(inLibrary);
         this.possesion = possesion;
         this.ISBN = ISBN;
         this.ID = nextID++;
     }
 
+    // Restores a copy with a previously assigned ID
+    public Book(int ID, String ISBN, String bookTitle, String author, Boolean inLibrary, Student possesion) {
+        this.bookTitle = bookTitle;
+        this.author = author;
+        this.inLibrary = Boolean.TRUE.equals(inLibrary);
+        this.possesion = possesion;
+        this.ISBN = ISBN;
+        this.ID = ID;
+        nextID = Math.max(nextID, ID + 1);
+    }
+
+    // A view of a copy stored elsewhere under its ID; leaves the ID counter alone, so views can be built concurrently
+    Book(int ID, String ISBN, String bookTitle, String author, boolean inLibrary) {
+        this.bookTitle = bookTitle;
+        this.author = author;
+        this.inLibrary = inLibrary;
+        this.ISBN = ISBN;
+        this.ID = ID;
+    }
+
     public int getID() {
         return ID;
     }
@@ -38,6 +56,7 @@ public class Book
         return author;
     }
 
+    // False only while lent; a copy set aside for a hold is in the library but not available, see Library.isAvailable
     public Boolean getInLibrary() {
         return inLibrary;
     }
@@ -50,20 +69,23 @@ public class Book
         this.possesion = possesion;
     }
 
+    // Once the copy is in a Library, only the Library changes this, together with its availability
     public void setInLibrary(Boolean inLibrary) {
-        this.inLibrary = inLibrary;
+        this.inLibrary = Boolean.TRUE.equals(inLibrary);
     }
 
+    // A copy is identified by its ID alone; availability and possession change over its lifetime
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Book book = (Book) o;
-        return ID == book.ID && ISBN == book.ISBN && Objects.equals(bookTitle, book.bookTitle) && Objects.equals(author, book.author) && Objects.equals(inLibrary, book.inLibrary) && Objects.equals(possesion, book.possesion);
+        return ID == book.ID;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(ID, ISBN, bookTitle, author, inLibrary, possesion);
+        return Integer.hashCode(ID);
     }
 
     @Override
@@ -0,0 +1,134 @@
+package edu.farmingdale.library.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Running view of what is being borrowed, fed one event per borrow and
+ * return. Borrows and returns are counted over a sliding window of
+ * -Dlibrary.statsWindowMinutes (default 60), kept as one bucket per minute
+ * of the window. The most borrowed titles (by ISBN) and authors are
+ * tracked by HeavyHitters sketches, whose counts are halved once per
+ * window so they follow current demand. Memory depends only on the window
+ * and -Dlibrary.statsTopK (default 20), never on the number of events, and
+ * every query reads at most K entries or one bucket per minute.
+ */
+public class CirculationStats {
+
+    public record Popular(String key, long borrows) {}
+
+    private static final int SKETCH_WIDTH = 4096;
+
+    private final long windowMillis;
+    private final Window borrows;
+    private final Window returns;
+    private final HeavyHitters titles;
+    private final HeavyHitters authors;
+
+    // Guarded by this
+    private long decayedAt;
+
+    public CirculationStats() {
+        this(Long.getLong("library.statsWindowMinutes", 60), Integer.getInteger("library.statsTopK", 20));
+    }
+
+    CirculationStats(long windowMinutes, int topK) {
+        int buckets = (int) Math.max(1, windowMinutes);
+        this.windowMillis = buckets * 60_000L;
+        this.borrows = new Window(buckets, 60_000L);
+        this.returns = new Window(buckets, 60_000L);
+        this.titles = new HeavyHitters(SKETCH_WIDTH, topK);
+        this.authors = new HeavyHitters(SKETCH_WIDTH, topK);
+        this.decayedAt = System.currentTimeMillis();
+    }
+
+    public synchronized void borrowed(Book book, long now) {
+        decayIfDue(now);
+        borrows.add(now);
+        titles.add(Library.isbnKey(book.getISBN()));
+        if (book.getAuthor() != null) {
+            authors.add(book.getAuthor());
+        }
+    }
+
+    public synchronized void returned(Book book, long now) {
+        returns.add(now);
+    }
+
+    public synchronized long getBorrowsInWindow(long now) {
+        return borrows.sum(now);
+    }
+
+    public synchronized long getReturnsInWindow(long now) {
+        return returns.sum(now);
+    }
+
+    // Most borrowed ISBNs (normalized), highest first; counts are estimates and never too low
+    public synchronized List<Popular> getTopTitles(int limit) {
+        // A quiet spell with no borrows must still fade the counts before they are read
+        decayIfDue(System.currentTimeMillis());
+        return popular(titles, limit);
+    }
+
+    public synchronized List<Popular> getTopAuthors(int limit) {
+        decayIfDue(System.currentTimeMillis());
+        return popular(authors, limit);
+    }
+
+    private static List<Popular> popular(HeavyHitters sketch, int limit) {
+        List<HeavyHitters.Entry> top = sketch.top(limit);
+        List<Popular> out = new ArrayList<>(top.size());
+        for (HeavyHitters.Entry e : top) {
+            out.add(new Popular(e.key(), e.count()));
+        }
+        return out;
+    }
+
+    private void decayIfDue(long now) {
+        // A long quiet spell fades the counts once per window that passed, capped since 64 halvings clear them
+        long windows = Math.min(64, (now - decayedAt) / windowMillis);
+        for (long i = 0; i < windows; i++) {
+            titles.decay();
+            authors.decay();
+        }
+        if (windows > 0) {
+            decayedAt = (windows == 64) ? now : decayedAt + windows * windowMillis;
+        }
+    }
+
+    // Event counts in fixed-width time buckets; a bucket is reset when its slot comes round again
+    private static final class Window {
+        private final long[] counts;
+        private final long[] slots; // the bucket number each count belongs to
+        private final long bucketMillis;
+
+        Window(int buckets, long bucketMillis) {
+            this.counts = new long[buckets];
+            this.slots = new long[buckets];
+            this.bucketMillis = bucketMillis;
+            Arrays.fill(slots, -1);
+        }
+
+        void add(long now) {
+            long slot = now / bucketMillis;
+            int i = (int) (slot % counts.length);
+            if (slots[i] != slot) {
+                slots[i] = slot;
+                counts[i] = 0;
+            }
+            counts[i]++;
+        }
+
+        long sum(long now) {
+            long oldest = now / bucketMillis - counts.length;
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (slots[i] > oldest) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
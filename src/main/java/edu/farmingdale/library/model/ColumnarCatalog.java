@@ -0,0 +1,375 @@
+package edu.farmingdale.library.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Compact storage for large catalogs: one row per copy spread over primitive
+ * arrays instead of one Book object per copy. Titles and authors are pooled
+ * as UTF-8 bytes, so the copies of a title share one entry. 13-digit ISBNs are
+ * packed into a long, and other ISBN strings go into the pool. Copy IDs are
+ * handed out sequentially, so rows are found through a table indexed by
+ * ID offset; ISBNs go through an open-addressing table of long keys.
+ * Book objects are only built when a caller asks for one and are not cached;
+ * their possession is always null, since holders are tracked by Library.
+ * ColumnarCatalogRepository loads the catalog through here so that the
+ * copies of a title share their strings (-Dlibrary.catalog=columnar).
+ * Lookups of primitive state are optimistic and fall back to a read lock
+ * when they overlap a write; anything that decodes a string or builds a
+ * Book holds the read lock, since the string pool is not safe to read
+ * while it grows. Additions and state changes take the write lock.
+ */
+public class ColumnarCatalog {
+
+    private static final int NO_ROW = -1;
+    private static final byte IN_LIBRARY = 1;
+
+    private int[] ids;
+    private int[] titles;
+    private int[] authors;
+    private long[] isbns;       // packed ISBN-13, or -(pool ref + 1) for anything else
+    private int[] nextSameIsbn; // row of the next copy with the same ISBN, or NO_ROW
+    private byte[] state;
+    private int size;
+
+    private final StringPool strings = new StringPool();
+
+    // Copy ID -> row + 1 (0 for no copy), indexed by ID - firstId
+    private int[] rowById = new int[0];
+    private int firstId;
+
+    // ISBN key -> first row of that ISBN's copies
+    private long[] isbnKeys;
+    private int[] isbnFirst;
+    private int isbnCount;
+
+    private final StampedLock lock = new StampedLock();
+
+    public ColumnarCatalog() {
+        this(1024);
+    }
+
+    public ColumnarCatalog(int expectedCopies) {
+        int capacity = Math.max(expectedCopies, 16);
+        ids = new int[capacity];
+        titles = new int[capacity];
+        authors = new int[capacity];
+        isbns = new long[capacity];
+        nextSameIsbn = new int[capacity];
+        state = new byte[capacity];
+
+        int slots = tableSize(capacity / 2);
+        isbnKeys = new long[slots];
+        isbnFirst = new int[slots];
+        Arrays.fill(isbnFirst, NO_ROW);
+    }
+
+    public static ColumnarCatalog of(Collection<Book> books) {
+        ColumnarCatalog catalog = new ColumnarCatalog(books.size());
+        for (Book b : books) {
+            catalog.add(b);
+        }
+        return catalog;
+    }
+
+    public boolean add(Book book) {
+        return add(book.getID(), book.getISBN(), book.getBookTitle(), book.getAuthor(), book.getInLibrary());
+    }
+
+    // Returns false if a copy with this ID is already stored
+    public boolean add(int id, String isbn, String title, String author, boolean inLibrary) {
+        long stamp = lock.writeLock();
+        try {
+            if (rowOf(id) != NO_ROW) {
+                return false;
+            }
+            if (size == ids.length) {
+                grow();
+            }
+            int row = size++;
+            ids[row] = id;
+            titles[row] = strings.intern(title);
+            authors[row] = strings.intern(author);
+            isbns[row] = packIsbn(isbn, true);
+            nextSameIsbn[row] = NO_ROW;
+            state[row] = inLibrary ? IN_LIBRARY : 0;
+            putId(id, row);
+            linkIsbn(isbns[row], row);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean contains(int id) {
+        return readOptimistic(id, row -> Boolean.TRUE) != null;
+    }
+
+    // A new Book view of the copy, or null if there is none with this ID
+    public Book getBookByID(int id) {
+        return readLocked(id, materializer);
+    }
+
+    public String getTitle(int id) {
+        return readLocked(id, titleReader);
+    }
+
+    public String getAuthor(int id) {
+        return readLocked(id, authorReader);
+    }
+
+    public boolean isInLibrary(int id) {
+        return readOptimistic(id, inLibraryReader) == Boolean.TRUE;
+    }
+
+    // Returns false if there is no copy with this ID
+    public boolean setInLibrary(int id, boolean inLibrary) {
+        long stamp = lock.writeLock();
+        try {
+            int row = rowOf(id);
+            if (row == NO_ROW) {
+                return false;
+            }
+            state[row] = (byte) (inLibrary ? state[row] | IN_LIBRARY : state[row] & ~IN_LIBRARY);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Copy IDs sharing the ISBN, in the order they were added
+    public int[] getCopyIdsByIsbn(String isbn) {
+        long stamp = lock.readLock();
+        try {
+            long key = packIsbn(isbn, false);
+            int slot = (key == 0) ? NO_ROW : isbnSlot(key);
+            if (slot == NO_ROW || isbnFirst[slot] == NO_ROW) {
+                return new int[0];
+            }
+            IntList copies = new IntList();
+            for (int row = isbnFirst[slot]; row != NO_ROW; row = nextSameIsbn[row]) {
+                copies.add(ids[row]);
+            }
+            return copies.toArray();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public List<Book> getCopiesByIsbn(String isbn) {
+        int[] copyIds = getCopyIdsByIsbn(isbn);
+        List<Book> books = new ArrayList<>(copyIds.length);
+        for (int id : copyIds) {
+            Book b = getBookByID(id);
+            if (b != null) books.add(b);
+        }
+        return books;
+    }
+
+    // Materializes every copy, in the order they were added; copies with the same title, author or ISBN share one String
+    public List<Book> toBooks() {
+        long stamp = lock.readLock();
+        try {
+            String[] decoded = new String[strings.size()];
+            HashMap<Long, String> unpacked = new HashMap<>();
+            List<Book> books = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                long isbn = isbns[row];
+                books.add(new Book(ids[row],
+                        (isbn > 0) ? unpacked.computeIfAbsent(isbn, this::unpackIsbn) : shared(decoded, (int) (-isbn - 1)),
+                        shared(decoded, titles[row]), shared(decoded, authors[row]), (state[row] & IN_LIBRARY) != 0));
+            }
+            return books;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private String shared(String[] decoded, int ref) {
+        String s = decoded[ref];
+        return (s != null) ? s : (decoded[ref] = strings.get(ref));
+    }
+
+    public int distinctStrings() {
+        long stamp = lock.readLock();
+        try {
+            return strings.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private interface RowReader<T> {
+        T read(int row);
+    }
+
+    private final RowReader<Book> materializer = this::materialize;
+    private final RowReader<String> titleReader = row -> strings.get(titles[row]);
+    private final RowReader<String> authorReader = row -> strings.get(authors[row]);
+    private final RowReader<Boolean> inLibraryReader = row -> (state[row] & IN_LIBRARY) != 0;
+
+    // For readers that only touch primitive columns: tries without locking first and only takes the read lock if a write overlapped
+    private <T> T readOptimistic(int id, RowReader<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int row = rowOf(id);
+                T value = (row == NO_ROW) ? null : reader.read(row);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // torn read while an add was growing the arrays
+            }
+        }
+        return readLocked(id, reader);
+    }
+
+    private <T> T readLocked(int id, RowReader<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            int row = rowOf(id);
+            return (row == NO_ROW) ? null : reader.read(row);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Book materialize(int row) {
+        return new Book(ids[row], unpackIsbn(isbns[row]), strings.get(titles[row]), strings.get(authors[row]),
+                (state[row] & IN_LIBRARY) != 0);
+    }
+
+    // ====== ISBN PACKING ======
+
+    // 13 plain digits pack into the long itself; anything else is keyed by its pool reference.
+    // When intern is false an unknown string returns 0, which no stored ISBN uses.
+    private long packIsbn(String isbn, boolean intern) {
+        String s = (isbn == null) ? "" : isbn.trim();
+        if (s.length() == 13) {
+            long packed = 0;
+            int i = 0;
+            for (; i < 13; i++) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9') break;
+                packed = packed * 10 + (c - '0');
+            }
+            if (i == 13 && packed != 0) {
+                return packed;
+            }
+        }
+        int ref = intern ? strings.intern(s) : strings.find(s);
+        return (ref < 0) ? 0 : -(ref + 1L);
+    }
+
+    private String unpackIsbn(long packed) {
+        if (packed > 0) {
+            String digits = Long.toString(packed);
+            return "0".repeat(13 - digits.length()) + digits;
+        }
+        return strings.get((int) (-packed - 1));
+    }
+
+    // ====== LOOKUP TABLES ======
+
+    private int rowOf(int id) {
+        long at = (long) id - firstId;
+        return (at < 0 || at >= rowById.length) ? NO_ROW : rowById[(int) at] - 1;
+    }
+
+    // Widens the ID table to cover the new ID, keeping half again as much headroom on the growing side
+    private void putId(int id, int row) {
+        if (rowById.length == 0) {
+            firstId = id;
+            rowById = new int[Math.max(ids.length, 16)];
+        } else if (id < firstId) {
+            int shift = Math.max(firstId - id, rowById.length >> 1);
+            shift = (int) Math.min(shift, (long) firstId - Integer.MIN_VALUE);
+            int[] grown = new int[rowById.length + shift];
+            System.arraycopy(rowById, 0, grown, shift, rowById.length);
+            rowById = grown;
+            firstId -= shift;
+        } else if ((long) id - firstId >= rowById.length) {
+            long needed = (long) id - firstId + 1;
+            rowById = Arrays.copyOf(rowById, (int) Math.max(needed, rowById.length + (rowById.length >> 1)));
+        }
+        rowById[id - firstId] = row + 1;
+    }
+
+    // The slot holding the key, or the empty slot where it would go
+    private int isbnSlot(long key) {
+        int mask = isbnKeys.length - 1;
+        for (int slot = mix(Long.hashCode(key)) & mask; ; slot = (slot + 1) & mask) {
+            if (isbnFirst[slot] == NO_ROW || isbnKeys[slot] == key) {
+                return slot;
+            }
+        }
+    }
+
+    // Appends the row to its ISBN's chain; chains are as long as a title has copies
+    private void linkIsbn(long key, int row) {
+        if ((isbnCount + 1) * 2 > isbnKeys.length) {
+            rehashIsbns(isbnKeys.length * 2);
+        }
+        int slot = isbnSlot(key);
+        if (isbnFirst[slot] == NO_ROW) {
+            isbnKeys[slot] = key;
+            isbnFirst[slot] = row;
+            isbnCount++;
+            return;
+        }
+        int last = isbnFirst[slot];
+        while (nextSameIsbn[last] != NO_ROW) {
+            last = nextSameIsbn[last];
+        }
+        nextSameIsbn[last] = row;
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        authors = Arrays.copyOf(authors, capacity);
+        isbns = Arrays.copyOf(isbns, capacity);
+        nextSameIsbn = Arrays.copyOf(nextSameIsbn, capacity);
+        state = Arrays.copyOf(state, capacity);
+    }
+
+    private void rehashIsbns(int slots) {
+        long[] oldKeys = isbnKeys;
+        int[] oldFirst = isbnFirst;
+        isbnKeys = new long[slots];
+        isbnFirst = new int[slots];
+        Arrays.fill(isbnFirst, NO_ROW);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldFirst[i] != NO_ROW) {
+                int slot = isbnSlot(oldKeys[i]);
+                isbnKeys[slot] = oldKeys[i];
+                isbnFirst[slot] = oldFirst[i];
+            }
+        }
+    }
+
+    // Power of two at least twice the expected entries, so probes stay short
+    private static int tableSize(int entries) {
+        return Integer.highestOneBit(Math.max(entries, 8) * 2 - 1) << 1;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,54 @@
+package edu.farmingdale.library.model;
+
+/**
+ * Copies of one ISBN that were on the shelf when they were queued, as a
+ * ring buffer of copy IDs. A copy can be lent by ID while it waits here, so
+ * takers must check each polled copy is still free. The shared queued set
+ * keeps every copy in its queue at most once, and is only changed under
+ * the lock of the queue that owns the copy.
+ */
+final class CopyQueue {
+
+    static final int EMPTY = -1;
+
+    private final AvailabilitySet queued;
+    private int[] ids = new int[4];
+    private int head;
+    private int size;
+
+    CopyQueue(AvailabilitySet queued) {
+        this.queued = queued;
+    }
+
+    synchronized void offer(int id) {
+        if (!queued.update(id, true)) {
+            return; // already waiting
+        }
+        if (size == ids.length) {
+            int[] grown = new int[size * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = ids[(head + i) % ids.length];
+            }
+            ids = grown;
+            head = 0;
+        }
+        ids[(head + size) % ids.length] = id;
+        size++;
+    }
+
+    // The oldest queued copy, or EMPTY
+    synchronized int poll() {
+        if (size == 0) {
+            return EMPTY;
+        }
+        int id = ids[head];
+        head = (head + 1) % ids.length;
+        size--;
+        queued.clear(id);
+        return id;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,168 @@
+package edu.farmingdale.library.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Due dates keyed by copy ID and stored as epoch days, so neither the keys nor
+ * the dates are boxed. A second index groups copies by due day, which lets
+ * "due before" queries touch only the matching copies. All public methods
+ * are synchronized.
+ */
+public class DueDateTable {
+
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Parallel arrays: ids[i] is due on days[i]
+    public record Entries(int[] ids, int[] days) {}
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private int[] days;
+    private int size;
+
+    private final TreeMap<Integer, IntList> copiesByDay = new TreeMap<>();
+
+    public DueDateTable() {
+        this(64);
+    }
+
+    public DueDateTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize * 2, 16) - 1) << 1;
+        keys = new int[capacity];
+        days = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public synchronized void put(int copyId, int epochDay) {
+        int slot = find(copyId);
+        if (keys[slot] == copyId) {
+            unindex(copyId, days[slot]);
+            days[slot] = epochDay;
+        } else {
+            keys[slot] = copyId;
+            days[slot] = epochDay;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+        copiesByDay.computeIfAbsent(epochDay, d -> new IntList()).add(copyId);
+    }
+
+    // Returns the epoch day, or NO_DATE when the copy has no due date
+    public synchronized int get(int copyId) {
+        int slot = find(copyId);
+        return keys[slot] == copyId ? days[slot] : NO_DATE;
+    }
+
+    public synchronized void remove(int copyId) {
+        int slot = find(copyId);
+        if (keys[slot] != copyId) {
+            return;
+        }
+        unindex(copyId, days[slot]);
+        keys[slot] = EMPTY;
+        size--;
+
+        // Shift later entries of the probe chain back so lookups never hit a gap
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int i = (slot + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            int home = mix(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                days[gap] = days[i];
+                keys[i] = EMPTY;
+                gap = i;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Copy IDs due strictly before the given epoch day, earliest first
+    public synchronized int[] dueBefore(int epochDay) {
+        Map<Integer, IntList> head = copiesByDay.headMap(epochDay, false);
+        int count = 0;
+        for (IntList ids : head.values()) {
+            count += ids.size();
+        }
+
+        int[] out = new int[count];
+        int n = 0;
+        for (IntList ids : head.values()) {
+            for (int i = 0; i < ids.size(); i++) {
+                out[n++] = ids.get(i);
+            }
+        }
+        return out;
+    }
+
+    // Copy IDs due before the given epoch day, each with its due day, earliest first
+    public synchronized Entries entriesDueBefore(int epochDay) {
+        Map<Integer, IntList> head = copiesByDay.headMap(epochDay, false);
+        int count = 0;
+        for (IntList ids : head.values()) {
+            count += ids.size();
+        }
+
+        int[] ids = new int[count];
+        int[] dueDays = new int[count];
+        int n = 0;
+        for (Map.Entry<Integer, IntList> day : head.entrySet()) {
+            IntList list = day.getValue();
+            for (int i = 0; i < list.size(); i++) {
+                ids[n] = list.get(i);
+                dueDays[n++] = day.getKey();
+            }
+        }
+        return new Entries(ids, dueDays);
+    }
+
+    // Copy IDs due on exactly the given epoch day
+    public synchronized int[] dueOn(int epochDay) {
+        IntList ids = copiesByDay.get(epochDay);
+        return (ids == null) ? new int[0] : ids.toArray();
+    }
+
+    private void unindex(int copyId, int epochDay) {
+        IntList ids = copiesByDay.get(epochDay);
+        if (ids != null && ids.remove(copyId) && ids.isEmpty()) {
+            copiesByDay.remove(epochDay);
+        }
+    }
+
+    private int find(int copyId) {
+        int mask = keys.length - 1;
+        int i = mix(copyId) & mask;
+        while (keys[i] != EMPTY && keys[i] != copyId) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldDays = days;
+        keys = new int[oldKeys.length * 2];
+        days = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                days[slot] = oldDays[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,122 @@
+package edu.farmingdale.library.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Approximate counts for an unbounded set of keys in fixed space: a
+ * Count-Min sketch estimates every key's count, and the K keys with the
+ * highest estimates are kept in a small array sorted by count. The sketch
+ * never undercounts, so a key that really is in the top K is only missed
+ * if collisions lift others above it. Not thread-safe; CirculationStats
+ * guards it.
+ */
+final class HeavyHitters {
+
+    record Entry(String key, long count) {}
+
+    private static final int DEPTH = 4;
+
+    private final long[][] sketch;
+    private final int mask;
+
+    // Top keys, highest count first
+    private final String[] keys;
+    private final long[] counts;
+    private int size;
+
+    // width is rounded up to a power of two
+    HeavyHitters(int width, int k) {
+        int w = Integer.highestOneBit(Math.max(width, 16) - 1) << 1;
+        sketch = new long[DEPTH][w];
+        mask = w - 1;
+        keys = new String[k];
+        counts = new long[k];
+    }
+
+    void add(String key) {
+        // Two unrelated hashes of the characters, so keys whose hashCode collides still land in different cells
+        int h1 = mix(key.hashCode());
+        int h2 = fnv(key) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            long[] cells = sketch[row];
+            int i = (h1 + row * h2) & mask;
+            estimate = Math.min(estimate, ++cells[i]);
+        }
+        offer(key, estimate);
+    }
+
+    // The top entries, at most limit of them; O(K)
+    List<Entry> top(int limit) {
+        int n = Math.min(limit, size);
+        List<Entry> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new Entry(keys[i], counts[i]));
+        }
+        return out;
+    }
+
+    // Halves every count, so older activity fades while the order of the top keys stays the same
+    void decay() {
+        for (long[] cells : sketch) {
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] >>>= 1;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            counts[i] >>>= 1;
+        }
+    }
+
+    private void offer(String key, long estimate) {
+        int at = -1;
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                at = i;
+                break;
+            }
+        }
+        if (at < 0) {
+            if (size < keys.length) {
+                at = size++;
+            } else if (estimate > counts[size - 1]) {
+                at = size - 1;
+            } else {
+                return;
+            }
+            keys[at] = key;
+        }
+        counts[at] = estimate;
+
+        // Counts only grow here, so the entry only moves up
+        while (at > 0 && counts[at - 1] < counts[at]) {
+            swap(at - 1, at);
+            at--;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String k = keys[a];
+        keys[a] = keys[b];
+        keys[b] = k;
+        long c = counts[a];
+        counts[a] = counts[b];
+        counts[b] = c;
+    }
+
+    // FNV-1a over the UTF-16 chars, independent of String.hashCode
+    private static int fnv(String key) {
+        int h = 0x811C9DC5;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 15);
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
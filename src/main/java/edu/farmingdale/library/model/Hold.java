@@ -0,0 +1,89 @@
+package edu.farmingdale.library.model;
+
+import java.util.Locale;
+
+/**
+ * A student's place in line for a title. A hold waits until a copy of the
+ * ISBN comes back, is then ready with that copy set aside until the pickup
+ * deadline, and ends when the copy is borrowed, the hold is cancelled, or
+ * the deadline passes.
+ */
+public final class Hold {
+
+    public enum Status {
+        WAITING,    // in line for the next returned copy
+        READY,      // a copy is set aside for pickup
+        FULFILLED,  // the set-aside copy was borrowed
+        CANCELLED,
+        EXPIRED     // not picked up in time
+    }
+
+    public static final int NO_COPY = -1;
+
+    private final long id;
+    private final String email;
+    private final String isbn;
+    private final long placedAt;
+
+    // Changed only under the lock of the title's hold queue
+    private volatile Status status;
+    private volatile int copyId;
+    private volatile long readyUntil;
+
+    public Hold(long id, String email, String isbn, long placedAt, Status status, int copyId, long readyUntil) {
+        this.id = id;
+        this.email = email;
+        this.isbn = isbn;
+        this.placedAt = placedAt;
+        this.status = status;
+        this.copyId = copyId;
+        this.readyUntil = readyUntil;
+    }
+
+    // Detached copy handed to the store and to listeners
+    Hold(Hold other) {
+        this(other.id, other.email, other.isbn, other.placedAt, other.status, other.copyId, other.readyUntil);
+    }
+
+    public long getId() { return id; }
+    public String getEmail() { return email; }
+    public String getIsbn() { return isbn; }
+    public long getPlacedAt() { return placedAt; }
+    public Status getStatus() { return status; }
+    public int getCopyId() { return copyId; }
+    public long getReadyUntil() { return readyUntil; }
+
+    public boolean isActive() {
+        return status == Status.WAITING || status == Status.READY;
+    }
+
+    public boolean isFor(Student student) {
+        return email.equalsIgnoreCase(student.getEmail());
+    }
+
+    void waiting() {
+        status = Status.WAITING;
+        copyId = NO_COPY;
+        readyUntil = 0;
+    }
+
+    void ready(int copyId, long readyUntil) {
+        this.status = Status.READY;
+        this.copyId = copyId;
+        this.readyUntil = readyUntil;
+    }
+
+    void end(Status status) {
+        this.status = status;
+    }
+
+    String studentKey() {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "Hold{id=" + id + ", email='" + email + "', isbn='" + isbn + "', status=" + status
+                + (status == Status.READY ? ", copy=" + copyId : "") + '}';
+    }
+}
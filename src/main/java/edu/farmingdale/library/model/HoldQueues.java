@@ -0,0 +1,253 @@
+package edu.farmingdale.library.model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Holds per title, as a FIFO line of waiting holds, plus the copies set
+ * aside for ready holds and a timer wheel of pickup deadlines. Returning a
+ * copy takes the first waiting hold off the line and cancelling just marks
+ * the hold, so both cost the same however long the line is; cancelled holds
+ * are dropped when the line reaches them. A student's list drops a hold as
+ * soon as it ends, and the list itself goes once it is empty. Every change
+ * of a hold's status is passed to the change callback under the lock of the
+ * hold's title.
+ */
+final class HoldQueues {
+
+    // The line for one ISBN key; waiting counts the live holds in it
+    private static final class Line {
+        final ArrayDeque<Hold> holds = new ArrayDeque<>();
+        int waiting;
+    }
+
+    private final ConcurrentHashMap<String, Line> lines = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, List<Hold>> byStudent = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Hold> byCopy = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final TimerWheel<Hold> deadlines;
+    private final long pickupMillis;
+    private final Consumer<Hold> changes;
+
+    HoldQueues(long pickupMillis, long tickMillis, Consumer<Hold> changes) {
+        this.pickupMillis = pickupMillis;
+        this.changes = changes;
+        this.deadlines = new TimerWheel<>(tickMillis, 512, System.currentTimeMillis());
+    }
+
+    // Adds a waiting hold at the back of the title's line; null if the student already has one on the title
+    Hold place(Student student, String isbn, long now) {
+        String key = student.getEmail().toLowerCase(Locale.ROOT);
+        while (true) {
+            List<Hold> mine = byStudent.computeIfAbsent(key, k -> new ArrayList<>());
+            synchronized (mine) {
+                if (byStudent.get(key) != mine) {
+                    continue; // emptied and dropped by forget meanwhile
+                }
+                mine.removeIf(h -> !h.isActive());
+                for (Hold h : mine) {
+                    if (Library.isbnKey(h.getIsbn()).equals(Library.isbnKey(isbn))) {
+                        return null;
+                    }
+                }
+                Hold hold = new Hold(nextId.getAndIncrement(), student.getEmail(), isbn, now,
+                        Hold.Status.WAITING, Hold.NO_COPY, 0);
+                Line line = lineFor(isbn);
+                synchronized (line) {
+                    line.holds.addLast(hold);
+                    line.waiting++;
+                    changes.accept(hold);
+                }
+                mine.add(hold);
+                return hold;
+            }
+        }
+    }
+
+    // Sets the copy aside for the first waiting hold on its title; null if nobody is waiting
+    Hold reserveNext(Book copy, long now) {
+        Line line = lines.get(Library.isbnKey(copy.getISBN()));
+        if (line == null) {
+            return null;
+        }
+        synchronized (line) {
+            for (Hold h = line.holds.pollFirst(); h != null; h = line.holds.pollFirst()) {
+                if (h.getStatus() == Hold.Status.WAITING) {
+                    line.waiting--;
+                    makeReady(h, copy.getID(), now + pickupMillis);
+                    return h;
+                }
+            }
+        }
+        return null;
+    }
+
+    // The ready hold the copy is set aside for, or null
+    Hold reservation(int copyId) {
+        return byCopy.get(copyId);
+    }
+
+    /**
+     * Ends a ready hold because it was picked up, cancelled or expired, which
+     * frees its copy. Returns false if the hold is no longer ready on that
+     * copy, e.g. when an expiry races with the pickup. Caller holds the
+     * copy's lock.
+     */
+    boolean endReady(Hold hold, int copyId, Hold.Status status) {
+        synchronized (lineFor(hold.getIsbn())) {
+            if (hold.getStatus() != Hold.Status.READY || hold.getCopyId() != copyId || !byCopy.remove(copyId, hold)) {
+                return false;
+            }
+            hold.end(status);
+            changes.accept(hold);
+        }
+        forget(hold);
+        return true;
+    }
+
+    // Cancels a waiting hold; its entry stays in the line until the line reaches it
+    boolean cancelWaiting(Hold hold) {
+        Line line = lineFor(hold.getIsbn());
+        synchronized (line) {
+            if (hold.getStatus() != Hold.Status.WAITING) {
+                return false;
+            }
+            hold.end(Hold.Status.CANCELLED);
+            line.waiting--;
+            changes.accept(hold);
+        }
+        forget(hold);
+        return true;
+    }
+
+    // Takes an ended hold off its student's list; called outside the line's lock, since place() locks the list first
+    private void forget(Hold hold) {
+        String key = hold.studentKey();
+        List<Hold> mine = byStudent.get(key);
+        if (mine == null) {
+            return;
+        }
+        synchronized (mine) {
+            mine.remove(hold);
+            if (mine.isEmpty()) {
+                byStudent.remove(key, mine);
+            }
+        }
+    }
+
+    // Puts a ready hold back at the front of its line, when its copy went to someone else
+    void requeue(Hold hold) {
+        Line line = lineFor(hold.getIsbn());
+        synchronized (line) {
+            if (hold.getStatus() == Hold.Status.READY && byCopy.remove(hold.getCopyId(), hold)) {
+                hold.waiting();
+                line.holds.addFirst(hold);
+                line.waiting++;
+                changes.accept(hold);
+            }
+        }
+    }
+
+    /**
+     * Takes back a hold read from the store. Holds must come in the order they
+     * were placed. A ready hold keeps its copy only if the caller has checked
+     * the copy is still on the shelf; otherwise it waits again.
+     */
+    void restore(Hold hold, boolean copyStillFree) {
+        nextId.accumulateAndGet(hold.getId() + 1, Math::max);
+        List<Hold> mine = byStudent.computeIfAbsent(hold.studentKey(), k -> new ArrayList<>());
+        synchronized (mine) {
+            mine.add(hold);
+        }
+        Line line = lineFor(hold.getIsbn());
+        synchronized (line) {
+            if (hold.getStatus() == Hold.Status.READY && copyStillFree) {
+                byCopy.put(hold.getCopyId(), hold);
+                deadlines.schedule(hold, hold.getReadyUntil());
+                return;
+            }
+            if (hold.getStatus() == Hold.Status.READY) {
+                hold.waiting();
+                changes.accept(hold);
+            }
+            line.holds.addLast(hold);
+            line.waiting++;
+        }
+    }
+
+    // Ready holds whose pickup deadline has passed
+    List<Hold> overdue(long now) {
+        List<Hold> due = new ArrayList<>();
+        for (Hold h : deadlines.advance(now)) {
+            // Skip holds picked up or cancelled since, and deadlines of an earlier copy
+            if (h.getStatus() == Hold.Status.READY && h.getReadyUntil() <= now) {
+                due.add(h);
+            }
+        }
+        return due;
+    }
+
+    List<Hold> holdsOf(Student student) {
+        List<Hold> mine = byStudent.get(student.getEmail().toLowerCase(Locale.ROOT));
+        if (mine == null) {
+            return List.of();
+        }
+        synchronized (mine) {
+            return mine.stream().filter(Hold::isActive).toList();
+        }
+    }
+
+    // The student's ready hold on the title, or null
+    Hold readyFor(Student student, String isbn) {
+        String key = Library.isbnKey(isbn);
+        for (Hold h : holdsOf(student)) {
+            if (h.getStatus() == Hold.Status.READY && Library.isbnKey(h.getIsbn()).equals(key)) {
+                return h;
+            }
+        }
+        return null;
+    }
+
+    int waitingFor(String isbn) {
+        Line line = lines.get(Library.isbnKey(isbn));
+        if (line == null) {
+            return 0;
+        }
+        synchronized (line) {
+            return line.waiting;
+        }
+    }
+
+    // ISBN keys with holds waiting in line
+    List<String> titlesWaiting() {
+        List<String> keys = new ArrayList<>();
+        lines.forEach((key, line) -> {
+            synchronized (line) {
+                if (line.waiting > 0) keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    int readyCount() {
+        return byCopy.size();
+    }
+
+    // Students with at least one waiting or ready hold
+    int studentCount() {
+        return byStudent.size();
+    }
+
+    private void makeReady(Hold hold, int copyId, long readyUntil) {
+        hold.ready(copyId, readyUntil);
+        byCopy.put(copyId, hold);
+        deadlines.schedule(hold, readyUntil);
+        changes.accept(hold);
+    }
+
+    private Line lineFor(String isbn) {
+        return lines.computeIfAbsent(Library.isbnKey(isbn), k -> new Line());
+    }
+}
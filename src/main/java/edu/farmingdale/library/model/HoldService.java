@@ -0,0 +1,194 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.metrics.Counter;
+import edu.farmingdale.library.metrics.Metrics;
+import edu.farmingdale.library.persistence.HoldRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Holds on titles whose copies are all checked out. Students join a FIFO
+ * line per ISBN; a returned copy goes to the first student in line and is
+ * set aside for pickup, and a copy not picked up in time goes to the next
+ * one. Status changes are saved to the hold repository and passed to
+ * listeners on a background thread, in the order they happened, so neither
+ * runs under the library's locks. Like LoanService, calls return a result
+ * rather than throwing.
+ *
+ * Pickup window: -Dlibrary.holdPickupHours (default 72). Deadlines are
+ * checked every -Dlibrary.holdTickSeconds (default 60).
+ */
+public class HoldService implements AutoCloseable {
+
+    public enum Status {
+        OK,
+        NOT_FOUND,  // no copy with that ISBN
+        AVAILABLE,  // a copy is on the shelf, so there is nothing to wait for
+        DUPLICATE,  // the student already has a hold on the title
+        NOT_HELD    // the student has no hold on the title
+    }
+
+    public record HoldResult(Status status, Hold hold) {
+        public boolean isSuccess() {
+            return status == Status.OK;
+        }
+    }
+
+    // Gets a detached copy of each hold whose status changed; READY and EXPIRED are the ones to tell the student about
+    @FunctionalInterface
+    public interface Listener {
+        void holdChanged(Hold hold);
+    }
+
+    private static final long PICKUP_MILLIS = Long.getLong("library.holdPickupHours", 72) * 3_600_000;
+    private static final long TICK_MILLIS = Long.getLong("library.holdTickSeconds", 60) * 1000;
+
+    private static final Counter PLACED = Metrics.counter("holds.placed");
+    private static final Counter EXPIRED = Metrics.counter("holds.expired");
+
+    private final Library library;
+    private final HoldQueues queues;
+    private final ConcurrentLinkedQueue<Hold> changed = new ConcurrentLinkedQueue<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService executor;
+    private volatile HoldRepository repository;
+
+    HoldService(Library library) {
+        this.library = library;
+        this.queues = new HoldQueues(PICKUP_MILLIS, TICK_MILLIS, this::changed);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "holds");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::expireDue, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    HoldQueues queues() {
+        return queues;
+    }
+
+    // Restores the saved holds, then saves every change from here on; call once the copies are loaded
+    public void open(HoldRepository repository) {
+        this.repository = repository;
+        try {
+            List<Hold> saved = repository.loadActive();
+            library.restoreHolds(saved);
+            System.out.println("✅ Restored " + saved.size() + " holds.");
+        } catch (Exception e) {
+            System.out.println("⚠️ Could not load holds: " + e.getMessage());
+        }
+    }
+
+    public HoldResult placeHold(Student student, String isbn) {
+        if (library.getCopiesByIsbn(isbn).isEmpty()) {
+            return new HoldResult(Status.NOT_FOUND, null);
+        }
+        if (library.countAvailableCopies(isbn) > 0) {
+            return new HoldResult(Status.AVAILABLE, null);
+        }
+        Hold hold = library.placeHold(student, isbn);
+        if (hold == null) {
+            return new HoldResult(Status.DUPLICATE, null);
+        }
+        PLACED.increment();
+        return new HoldResult(Status.OK, hold);
+    }
+
+    public HoldResult cancelHold(Student student, String isbn) {
+        String key = Library.isbnKey(isbn);
+        for (Hold hold : queues.holdsOf(student)) {
+            if (Library.isbnKey(hold.getIsbn()).equals(key) && library.cancelHold(hold)) {
+                return new HoldResult(Status.OK, hold);
+            }
+        }
+        return new HoldResult(Status.NOT_HELD, null);
+    }
+
+    // The student's waiting and ready holds
+    public List<Hold> getHolds(Student student) {
+        return queues.holdsOf(student);
+    }
+
+    // Whether the copy is set aside for one of the student's holds, so only they can borrow it
+    public boolean isSetAsideFor(Student student, int copyId) {
+        Hold hold = queues.reservation(copyId);
+        return hold != null && hold.isFor(student);
+    }
+
+    public int getQueueLength(String isbn) {
+        return queues.waitingFor(isbn);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Saves the changes still queued and stops the timer
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        deliver();
+    }
+
+    // Runs under the hold's title lock, so changes are queued in the order they happened
+    private void changed(Hold hold) {
+        changed.add(new Hold(hold));
+        if (hold.getStatus() == Hold.Status.EXPIRED) {
+            EXPIRED.increment();
+        }
+        try {
+            executor.execute(this::deliver);
+        } catch (RejectedExecutionException e) {
+            // closing; close() delivers what is left
+        }
+    }
+
+    // Saves and announces everything queued so far, as one batch
+    private synchronized void deliver() {
+        List<Hold> batch = new ArrayList<>();
+        for (Hold h = changed.poll(); h != null; h = changed.poll()) {
+            batch.add(h);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        HoldRepository store = repository;
+        if (store != null) {
+            try {
+                store.saveAll(batch);
+            } catch (Exception e) {
+                System.out.println("⚠️ Could not save " + batch.size() + " hold changes: " + e.getMessage());
+            }
+        }
+        for (Hold h : batch) {
+            for (Listener listener : listeners) {
+                try {
+                    listener.holdChanged(h);
+                } catch (RuntimeException e) {
+                    System.out.println("⚠️ Hold listener failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void expireDue() {
+        try {
+            library.expireHolds(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            System.out.println("⚠️ Hold expiry failed: " + e.getMessage());
+        }
+    }
+}
@@ -1,116 +1,340 @@
 package edu.farmingdale.library.model;
 
-import com.google.cloud.firestore.Firestore;
-import edu.farmingdale.library.FirebaseConfig;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.WriteResult;
+import edu.farmingdale.library.metrics.Counter;
+import edu.farmingdale.library.metrics.LatencyHistogram;
+import edu.farmingdale.library.metrics.Metrics;
+import edu.farmingdale.library.metrics.MetricsReporter;
+import edu.farmingdale.library.persistence.*;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class Library {
 
-    private static Library instance;
+    private static volatile Library instance;
 
-    private HashMap<Integer, Book> copiesById;
-    private HashMap<String, Student> students;
-    private HashMap<Book, LocalDate> dueDates;
+    private static final Logger LOG = Logger.getLogger(Library.class.getName());
 
-    private Library() {
-        copiesById = new HashMap<>();
-        students = new HashMap<>();
-        dueDates = new HashMap<>();
+    private static final LatencyHistogram CATALOG_LOAD = Metrics.latency("catalog.load");
+    private static final LatencyHistogram STUDENTS_LOAD = Metrics.latency("students.load");
+    private static final LatencyHistogram ISBN_LOOKUP = Metrics.latency("lookup.isbn");
+    private static final LatencyHistogram BORROW = Metrics.latency("loan.borrow");
+    private static final LatencyHistogram RETURN = Metrics.latency("loan.return");
+    private static final Counter BORROW_REJECTED = Metrics.counter("loan.borrow.rejected");
+    private static final Counter RETURN_REJECTED = Metrics.counter("loan.return.rejected");
+
+    // Copy state changes are serialized per copy through one of these locks
+    private static final int LOCK_STRIPES = 64;
+
+    private ConcurrentHashMap<Integer, Book> copiesById;
+    private ConcurrentHashMap<String, List<Book>> copiesByIsbn;
+    private ConcurrentHashMap<String, Student> students;
+    private final Object[] copyLocks;
+
+    private final SortedIndex<Book> booksByTitle = new SortedIndex<>(
+            Comparator.comparing(Book::getBookTitle).thenComparingInt(Book::getID));
+    private final SortedIndex<Book> booksByAuthor = new SortedIndex<>(
+            Comparator.comparing(Book::getAuthor).thenComparingInt(Book::getID));
+    private final SortedIndex<Book> booksById = new SortedIndex<>(Comparator.comparingInt(Book::getID));
+
+    private final SortedIndex<Student> studentsByName = new SortedIndex<>(studentOrder(
+            Comparator.comparing(Student::getLastName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                    .thenComparing(Student::getFirstName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))));
+    private final SortedIndex<Student> studentsByEmail = new SortedIndex<>(studentOrder(Comparator.comparing(Student::getEmail)));
+    private final SortedIndex<Student> studentsById = new SortedIndex<>(studentOrder(Comparator.comparingInt(Student::getID)));
+    private final LoanCountIndex studentsByBooksBorrowed = new LoanCountIndex();
+    private SearchIndex titleIndex;
+    private SearchIndex authorIndex;
+    private DueDateTable dueDates;
+    private final OverdueFines fines;
+    private final CirculationStats circulation = new CirculationStats();
+    private final AlsoBorrowedIndex alsoBorrowed = new AlsoBorrowedIndex();
+
+    // Borrows not yet added to the also-borrowed index; drained on its own thread so lending never waits on the index
+    private record Borrowed(String email, String isbn) {}
+    private final ConcurrentLinkedQueue<Borrowed> unindexedBorrows = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean borrowDrainQueued = new AtomicBoolean();
+    private final ExecutorService borrowIndexer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "also-borrowed");
+        t.setDaemon(true);
+        return t;
+    });
+    // Copies on the shelf; the only source of truth for availability, see putOnShelf
+    private final AvailabilitySet available = new AvailabilitySet();
+
+    // Free copies per ISBN key, so "any copy of this title" takes one without scanning the copies
+    private final ConcurrentHashMap<String, CopyQueue> freeCopies = new ConcurrentHashMap<>();
+    private final AvailabilitySet queuedCopies = new AvailabilitySet();
+    private StudentWriteQueue writeQueue;
+    private StudentSync studentSync;
+    private volatile long studentsAsOf;
+    private final LoanService loanService;
+    private final HoldService holdService;
+    private final HoldQueues holds;
+    private volatile LoanJournal journal; // null until opened, so loading and replay are not journaled
+
+    private final CatalogRepository catalogRepository;
+    private volatile List<CsvParser.Problem> catalogProblems = List.of();
+    private final StudentRepository studentRepository;
+    private LibrarySnapshot snapshot;
+    private MetricsReporter metricsReporter;
+
+    public Library(CatalogRepository catalogRepository, StudentRepository studentRepository) {
+        this.catalogRepository = catalogRepository;
+        this.studentRepository = studentRepository;
+        copiesById = new ConcurrentHashMap<>();
+        copiesByIsbn = new ConcurrentHashMap<>();
+        students = new ConcurrentHashMap<>();
+        copyLocks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            copyLocks[i] = new Object();
+        }
+        titleIndex = new SearchIndex(Metrics.latency("search.title"));
+        authorIndex = new SearchIndex(Metrics.latency("search.author"));
+        dueDates = new DueDateTable();
+        fines = new OverdueFines(dueDates, this::holderOf, Clock.systemDefaultZone());
+        writeQueue = new StudentWriteQueue(studentRepository::saveAll, 500, 1000);
+        writeQueue.addWrittenListener((student, asOf) -> {
+            LoanJournal j = journal;
+            // 0: queued before the journal was open, so it vouches for no event
+            if (j != null && asOf > 0) {
+                j.markFlushed(student.getEmail(), asOf);
+            }
+        });
+        loanService = new LoanService(this);
+        holdService = new HoldService(this);
+        holds = holdService.queues();
+
+        Metrics.gauge("catalog.copies", copiesById::size);
+        Metrics.gauge("catalog.available", available::count);
+        Metrics.gauge("students.count", students::size);
+        Metrics.gauge("students.writeQueueDepth", writeQueue::getQueueDepth);
+        Metrics.gauge("holds.ready", holds::readyCount);
+        Metrics.gauge("holds.students", holds::studentCount);
+        Metrics.gauge("fines.studentsOverdue", fines::getStudentsOverdue);
+        Metrics.gauge("circulation.borrowsInWindow", () -> circulation.getBorrowsInWindow(System.currentTimeMillis()));
+        Metrics.gauge("circulation.returnsInWindow", () -> circulation.getReturnsInWindow(System.currentTimeMillis()));
     }
 
+    // Double-checked, so callers after the first don't contend on a lock; published only once fully loaded
     public static Library getInstance() {
-        if (instance == null) {
-            instance = new Library();
-            instance.loadBooksFromCSV();
-            instance.loadStudentsFromFirebase();
-            instance.syncBookAvailability(); // 🆕 Sync borrowed books
+        Library library = instance;
+        if (library == null) {
+            synchronized (Library.class) {
+                library = instance;
+                if (library == null) {
+                    library = open();
+                    instance = library;
+                }
+            }
         }
-        return instance;
+        return library;
     }
 
-    public void loadBooksFromCSV() {
-        String path = "/edu/farmingdale/library/books.csv";
+    private static Library open() {
+        Library library = new Library(defaultCatalogRepository(), defaultStudentRepository());
+        library.metricsReporter = MetricsReporter.fromSystemProperties();
+        library.snapshot = new LibrarySnapshot(dataDirectory().resolve("library.snapshot"),
+                Long.getLong("library.snapshotMaxAgeMinutes", 60) * 60_000);
 
-        try (Scanner scanner = new Scanner(Objects.requireNonNull(getClass().getResourceAsStream(path)))) {
-
-            if (scanner.hasNextLine()) scanner.nextLine(); // Skip header
+        long start = System.nanoTime();
+        if (library.snapshot.read(library, library.catalogRepository.fingerprint(), library.studentRepository.version())) {
+            System.out.println("✅ Restored library from snapshot in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        } else {
+            library.load();
+            System.out.println("✅ Cold load finished in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+            library.saveSnapshot();
+        }
+        library.openJournal(dataDirectory().resolve("loans.journal"));
+        library.indexLoans();
+        library.openHolds();
+        library.fines.start();
+        library.startStudentSync();
+        return library;
+    }
 
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                if (line.isEmpty()) continue;
+    // Local files (snapshot, file store) live here; override with -Dlibrary.dataDir
+    public static Path dataDirectory() {
+        return Paths.get(System.getProperty("library.dataDir",
+                System.getProperty("user.home") + "/.farmingdale-library"));
+    }
 
-                String[] parts = line.split(",", 3);
+    // Catalog storage is chosen with -Dlibrary.catalog=csv|columnar (default csv); both read the bundled CSV
+    private static CatalogRepository defaultCatalogRepository() {
+        CatalogRepository csv = new CsvCatalogRepository();
+        return "columnar".equals(System.getProperty("library.catalog", "csv")) ? new ColumnarCatalogRepository(csv) : csv;
+    }
 
-                if (parts.length < 3) {
-                    System.out.println("Skipping invalid row: " + line);
-                    continue;
+    // Student storage is chosen with -Dlibrary.store=firebase|file|memory (default firebase)
+    private static StudentRepository defaultStudentRepository() {
+        String store = System.getProperty("library.store", "firebase");
+        try {
+            switch (store) {
+                case "file" -> {
+                    return new FileStudentRepository(dataDirectory());
+                }
+                case "memory" -> {
+                    return new InMemoryStudentRepository();
                 }
+                default -> {
+                    return new FirestoreStudentRepository();
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("⚠️ Could not open " + store + " store, keeping students in memory: " + e.getMessage());
+            return new InMemoryStudentRepository();
+        }
+    }
 
-                String isbn = parts[0].trim();
-                String title = parts[1].trim();
-                String author = parts[2].trim();
+    public void load() {
+        loadBooks();
+        loadStudents();
+        syncBookAvailability(); // 🆕 Sync borrowed books
+    }
 
-                Book book = new Book(isbn, title, author, true, null);
+    public void loadBooks() {
+        long start = System.nanoTime();
+        try {
+            for (Book book : catalogRepository.loadBooks()) {
                 addBookCopy(book);
             }
 
+            CatalogRepository source = (catalogRepository instanceof ColumnarCatalogRepository columnar)
+                    ? columnar.getSource() : catalogRepository;
+            catalogProblems = (source instanceof CsvCatalogRepository csv) ? List.copyOf(csv.getProblems()) : List.of();
+            if (!catalogProblems.isEmpty()) {
+                LOG.warning("skipped " + catalogProblems.size() + " malformed catalog lines, see getCatalogProblems()");
+            }
+            if (LOG.isLoggable(Level.FINE)) {
+                for (CsvParser.Problem p : catalogProblems) {
+                    LOG.fine("skipped catalog line=" + p.line() + ": " + p.message());
+                }
+            }
+
             System.out.println("✅ Books loaded successfully.");
 
         } catch (Exception e) {
             System.out.println("⚠️ Error loading books: " + e.getMessage());
+        } finally {
+            CATALOG_LOAD.recordSince(start);
         }
     }
 
-    public void loadStudentsFromFirebase() {
-        try {
-            Firestore db = FirebaseConfig.getDB();
-            ApiFuture<QuerySnapshot> future = db.collection("students").get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+    // Malformed catalog rows the last loadBooks() skipped, with their line numbers
+    public List<CsvParser.Problem> getCatalogProblems() {
+        return catalogProblems;
+    }
 
-            for (QueryDocumentSnapshot doc : documents) {
-                Student s = doc.toObject(Student.class);
-                students.put(s.getEmail().toLowerCase(Locale.ROOT), s);
-            }
+    public void loadStudents() {
+        studentsAsOf = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            studentRepository.loadPages(page -> page.forEach(this::putStudent));
 
-            System.out.println("✅ Loaded " + students.size() + " students from Firebase.");
+            System.out.println("✅ Loaded " + students.size() + " students.");
         } catch (Exception e) {
             System.out.println("❌ Failed to load students: " + e.getMessage());
+        } finally {
+            STUDENTS_LOAD.recordSince(start);
         }
     }
 
     // ====== STUDENT MANAGEMENT ======
 
     public void addStudent(Student student) {
-        students.put(student.getEmail().toLowerCase(Locale.ROOT), student);
-        saveStudentToFirebase(student);
+        putStudent(student);
+        queueWrite(journal, student);
     }
 
-    // 🆕 NEW: Save student to Firebase
-    private void saveStudentToFirebase(Student student) {
-        try {
-            Firestore db = FirebaseConfig.getDB();
-            ApiFuture<WriteResult> future = db.collection("students")
-                    .document(student.getEmail().toLowerCase(Locale.ROOT))
-                    .set(student);
+    /**
+     * Saves new students and adds them once their save succeeds; bulk imports
+     * use this to report failures per row. Batches no larger than
+     * studentCommitSize() are saved all or nothing, so a failure means none
+     * of the batch was stored.
+     */
+    void addStudentsNow(List<Student> batch) throws Exception {
+        studentRepository.saveAll(batch);
+        batch.forEach(this::putStudent);
+    }
 
-            future.get();
-            System.out.println("✅ Student saved to Firebase: " + student.getEmail());
+    int studentCommitSize() {
+        return studentRepository.commitSize();
+    }
 
+    // Called when borrowing/returning books; the write happens in the background
+    public void updateStudent(Student student) {
+        queueWrite(journal, student);
+    }
+
+    public StudentWriteQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    // Flushes pending student writes and saves a snapshot for the next launch; call before exiting
+    public void shutdown() {
+        if (studentSync != null) {
+            studentSync.close();
+        }
+        writeQueue.shutdown();
+        holdService.close();
+        borrowIndexer.shutdown();
+        indexBorrows();
+        fines.close();
+        if (journal != null) {
+            journal.close();
+        }
+        saveSnapshot();
+        if (metricsReporter != null) {
+            metricsReporter.close();
+        }
+    }
+
+    private void saveSnapshot() {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            snapshot.write(this, catalogRepository.fingerprint(), studentRepository.version());
         } catch (Exception e) {
-            System.out.println("❌ Failed to save student to Firebase: " + e.getMessage());
+            System.out.println("⚠️ Could not save snapshot: " + e.getMessage());
         }
     }
 
-    // 🆕 NEW: Update student in Firebase (called when borrowing/returning books)
-    public void updateStudentInFirebase(Student student) {
-        saveStudentToFirebase(student); // Same method works for updates
+    // Adds a student already persisted elsewhere, without writing it back
+    void restoreStudent(Student student) {
+        putStudent(student);
+    }
+
+    // When the students in memory were last read from the store, for resuming sync
+    void setStudentsAsOf(long millis) {
+        studentsAsOf = millis;
+    }
+
+    private void putStudent(Student student) {
+        Student previous = students.put(student.getEmail().toLowerCase(Locale.ROOT), student);
+        if (previous != null) {
+            unindexStudent(previous);
+        }
+        indexStudent(student);
+    }
+
+    public Collection<Student> getAllStudents() {
+        return students.values();
     }
 
     public boolean emailExists(String email) {
@@ -122,36 +346,89 @@ public class Library {
     }
 
     // ====== STUDENT SORTING ======
+    // Each order is kept up to date as students are added and borrow or return books.
+    // The paged variants take the last student of the previous page as the cursor (null for the first page).
 
     public List<Student> getStudentsSortedByName() {
-        return students.values().stream()
-                .sorted(Comparator.comparing(Student::getLastName)
-                        .thenComparing(Student::getFirstName))
-                .collect(Collectors.toList());
+        return studentsByName.toList();
+    }
+
+    public List<Student> getStudentsSortedByName(Student after, int limit) {
+        return studentsByName.page(after, limit);
     }
 
     public List<Student> getStudentsSortedByEmail() {
-        return students.values().stream()
-                .sorted(Comparator.comparing(Student::getEmail))
-                .collect(Collectors.toList());
+        return studentsByEmail.toList();
+    }
+
+    public List<Student> getStudentsSortedByEmail(Student after, int limit) {
+        return studentsByEmail.page(after, limit);
     }
 
     public List<Student> getStudentsSortedByID() {
-        return students.values().stream()
-                .sorted(Comparator.comparingInt(Student::getID))
-                .collect(Collectors.toList());
+        return studentsById.toList();
+    }
+
+    public List<Student> getStudentsSortedByID(Student after, int limit) {
+        return studentsById.page(after, limit);
     }
 
     public List<Student> getStudentsSortedByBooksBorrowed() {
-        return students.values().stream()
-                .sorted(Comparator.comparingInt(s -> s.getCurrentBooks().size()))
-                .collect(Collectors.toList());
+        return studentsByBooksBorrowed.toList();
+    }
+
+    public List<Student> getStudentsSortedByBooksBorrowed(Student after, int limit) {
+        return studentsByBooksBorrowed.page(after, limit);
+    }
+
+    private void indexStudent(Student student) {
+        studentsByName.add(student);
+        studentsByEmail.add(student);
+        studentsById.add(student);
+        studentsByBooksBorrowed.add(student);
+    }
+
+    private void unindexStudent(Student student) {
+        studentsByName.remove(student);
+        studentsByEmail.remove(student);
+        studentsById.remove(student);
+        studentsByBooksBorrowed.remove(student);
+    }
+
+    // The loan count order keeps the student listed while it moves, unlike the others
+    private void reindexStudent(Student student, Runnable change) {
+        studentsByName.remove(student);
+        studentsByEmail.remove(student);
+        studentsById.remove(student);
+        change.run();
+        studentsByName.add(student);
+        studentsByEmail.add(student);
+        studentsById.add(student);
+        studentsByBooksBorrowed.refresh(student);
+    }
+
+    // Emails are unique, so they break ties in every student order
+    private static Comparator<Student> studentOrder(Comparator<Student> key) {
+        return key.thenComparing(s -> s.getEmail().toLowerCase(Locale.ROOT));
     }
 
     // ====== BOOK MANAGEMENT ======
 
     public void addBookCopy(Book book) {
-        copiesById.put(book.getID(), book);
+        if (copiesById.putIfAbsent(book.getID(), book) != null) {
+            return;
+        }
+        copiesByIsbn.computeIfAbsent(isbnKey(book.getISBN()), k -> new CopyOnWriteArrayList<>()).add(book);
+        booksByTitle.add(book);
+        booksByAuthor.add(book);
+        booksById.add(book);
+        if (book.getInLibrary()) {
+            synchronized (lockFor(book)) {
+                putOnShelf(book);
+            }
+        }
+        titleIndex.add(book.getID(), book.getBookTitle());
+        authorIndex.add(book.getID(), book.getAuthor());
     }
 
     public Book getBookByID(int id) {
@@ -163,75 +440,792 @@ public class Library {
     }
 
     public Book getBookByIsbn(String isbn) {
-        for (Book b : copiesById.values()) {
-            if (b.getISBN().equalsIgnoreCase(isbn)) {
+        long start = System.nanoTime();
+        List<Book> copies = copiesByIsbn.get(isbnKey(isbn));
+        ISBN_LOOKUP.recordSince(start);
+        return (copies == null || copies.isEmpty()) ? null : copies.get(0);
+    }
+
+    // All physical copies sharing an ISBN, in the order they were added
+    public List<Book> getCopiesByIsbn(String isbn) {
+        long start = System.nanoTime();
+        List<Book> copies = copiesByIsbn.get(isbnKey(isbn));
+        ISBN_LOOKUP.recordSince(start);
+        return (copies == null) ? List.of() : Collections.unmodifiableList(copies);
+    }
+
+    public Book getFirstAvailableCopy(String isbn) {
+        for (Book b : getCopiesByIsbn(isbn)) {
+            if (available.contains(b.getID())) {
                 return b;
             }
         }
         return null;
     }
 
+    // Share of the ISBN's copies out on loan or set aside for a hold right now, 0 to 1
+    public double getUtilization(String isbn) {
+        List<Book> copies = getCopiesByIsbn(isbn);
+        return copies.isEmpty() ? 0 : 1 - (double) countAvailableCopies(isbn) / copies.size();
+    }
+
+    // Copies of the ISBN on the shelf right now
+    public int countAvailableCopies(String isbn) {
+        int n = 0;
+        for (Book b : getCopiesByIsbn(isbn)) {
+            if (available.contains(b.getID())) n++;
+        }
+        return n;
+    }
+
+    private CopyQueue freeQueue(String isbn) {
+        return freeCopies.computeIfAbsent(isbnKey(isbn), k -> new CopyQueue(queuedCopies));
+    }
+
+    static String isbnKey(String isbn) {
+        return (isbn == null) ? "" : isbn.trim().toLowerCase(Locale.ROOT);
+    }
+
     // ====== BOOK SORTING ======
+    // Kept sorted as copies are added; paged variants take the last book of the previous page as the cursor
 
     public List<Book> getBooksSortedByTitle() {
-        return copiesById.values().stream()
-                .sorted(Comparator.comparing(Book::getBookTitle))
-                .collect(Collectors.toList());
+        return booksByTitle.toList();
+    }
+
+    public List<Book> getBooksSortedByTitle(Book after, int limit) {
+        return booksByTitle.page(after, limit);
     }
 
     public List<Book> getBooksSortedByAuthor() {
-        return copiesById.values().stream()
-                .sorted(Comparator.comparing(Book::getAuthor))
-                .collect(Collectors.toList());
+        return booksByAuthor.toList();
+    }
+
+    public List<Book> getBooksSortedByAuthor(Book after, int limit) {
+        return booksByAuthor.page(after, limit);
     }
 
     public List<Book> getBooksSortedByID() {
-        return copiesById.values().stream()
-                .sorted(Comparator.comparingInt(Book::getID))
-                .collect(Collectors.toList());
+        return booksById.toList();
+    }
+
+    public List<Book> getBooksSortedByID(Book after, int limit) {
+        return booksById.page(after, limit);
     }
 
     // ====== BOOK SEARCHING ======
 
+    // Results are ranked: exact matches first, then prefix, then word and substring matches
     public List<Book> searchByTitle(String title) {
-        return copiesById.values().stream()
-                .filter(b -> b.getBookTitle().toLowerCase().contains(title.toLowerCase()))
-                .toList();
+        return toBooks(titleIndex.search(title));
     }
 
     public List<Book> searchByAuthor(String author) {
-        return copiesById.values().stream()
-                .filter(b -> b.getAuthor().toLowerCase().contains(author.toLowerCase()))
-                .toList();
+        return toBooks(authorIndex.search(author));
+    }
+
+    // Also hands each batch of matches to onFound while the index is scanned, unranked, before the ranked list is returned
+    public List<Book> searchByTitle(String title, int batchSize, Consumer<List<Book>> onFound) {
+        return toBooks(titleIndex.search(title, batchSize, ids -> onFound.accept(toBooks(ids))));
+    }
+
+    public List<Book> searchByAuthor(String author, int batchSize, Consumer<List<Book>> onFound) {
+        return toBooks(authorIndex.search(author, batchSize, ids -> onFound.accept(toBooks(ids))));
+    }
+
+    public List<Book> searchByTitlePrefix(String prefix) {
+        return toBooks(titleIndex.searchPrefix(prefix));
+    }
+
+    public List<Book> searchByAuthorPrefix(String prefix) {
+        return toBooks(authorIndex.searchPrefix(prefix));
+    }
+
+    // Same ranking, but the hits are narrowed to copies on the shelf before any Book is looked up
+    public List<Book> searchAvailableByTitle(String title) {
+        return toBooks(available.retain(titleIndex.search(title)));
+    }
+
+    public List<Book> searchAvailableByAuthor(String author) {
+        return toBooks(available.retain(authorIndex.search(author)));
+    }
+
+    public int countAvailableByTitle(String title) {
+        return available.retain(titleIndex.search(title)).length;
+    }
+
+    public int countAvailableByAuthor(String author) {
+        return available.retain(authorIndex.search(author)).length;
+    }
+
+    private List<Book> toBooks(int[] ids) {
+        List<Book> books = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Book b = copiesById.get(id);
+            if (b != null) books.add(b);
+        }
+        return books;
     }
 
     public Book searchById(int id) {
         return copiesById.get(id);
     }
 
+    // ====== AVAILABILITY ======
+    // Read from the shelf bitmap, which putOnShelf and friends keep, so none of these touch the Book objects
+
+    public boolean isAvailable(int id) {
+        return available.contains(id);
+    }
+
+    public int countAvailable() {
+        return available.count();
+    }
+
+    // Copies on the shelf, in ID order
+    public List<Book> getAvailableBooks() {
+        return toBooks(available.toArray());
+    }
+
+    public void forEachAvailableId(IntConsumer action) {
+        available.forEach(action);
+    }
+
+    // ====== CIRCULATION ======
+
+    // Atomically lends the copy; returns false if someone else already has it
+    public boolean checkOut(Book book, Student student, LocalDate dueDate) {
+        long start = System.nanoTime();
+        boolean lent = lendTo(book, student, dueDate);
+        if (!lent) {
+            BORROW_REJECTED.increment();
+        }
+        BORROW.recordSince(start);
+        return lent;
+    }
+
+    /**
+     * Lends the copy set aside for the student's hold on the ISBN, or else
+     * whichever copy has been free longest; returns null if none is. Copies
+     * come off the ISBN's free queue, so popular titles with many copies
+     * don't scan them, and a copy lent by ID in the meantime is simply
+     * skipped.
+     */
+    public Book checkOutAnyCopy(String isbn, Student student, LocalDate dueDate) {
+        long start = System.nanoTime();
+        Book lent = null;
+        Hold ready = holds.readyFor(student, isbn);
+        if (ready != null) {
+            Book held = copiesById.get(ready.getCopyId());
+            if (held != null && lendTo(held, student, dueDate)) {
+                lent = held;
+            }
+        }
+        CopyQueue free = freeCopies.get(isbnKey(isbn));
+        if (lent == null && free != null) {
+            for (int id = free.poll(); id != CopyQueue.EMPTY; id = free.poll()) {
+                Book book = copiesById.get(id);
+                if (book != null && lendTo(book, student, dueDate)) {
+                    lent = book;
+                    break;
+                }
+            }
+        }
+        if (lent == null) {
+            BORROW_REJECTED.increment();
+        }
+        BORROW.recordSince(start);
+        return lent;
+    }
+
+    private boolean lendTo(Book book, Student student, LocalDate dueDate) {
+        synchronized (lockFor(book)) {
+            if (!book.getInLibrary()) {
+                return false;
+            }
+            // A copy set aside for a hold only goes to the student who placed it
+            Hold hold = holds.reservation(book.getID());
+            if (hold != null && (!hold.isFor(student) || !holds.endReady(hold, book.getID(), Hold.Status.FULFILLED))) {
+                return false;
+            }
+            lend(book, student);
+            LoanJournal j = journal;
+            long seq = changeLoans(j, student, () -> student.addLoan(book.getID(), book.getISBN()));
+            setDueDate(book, dueDate);
+            journal(j, LoanJournal.Type.BORROW, book, student, dueDate, seq);
+        }
+        circulation.borrowed(book, System.currentTimeMillis());
+        recordBorrowLater(student.getEmail(), book.getISBN());
+        return true;
+    }
+
+    // Atomically takes the copy back; returns false if the student does not hold it
+    public boolean checkIn(Book book, Student student) {
+        long start = System.nanoTime();
+        synchronized (lockFor(book)) {
+            if (!isHeldBy(book, student)) {
+                RETURN_REJECTED.increment();
+                RETURN.recordSince(start);
+                return false;
+            }
+            LoanJournal j = journal;
+            long seq = changeLoans(j, student, () -> student.removeLoan(book.getID(), book.getISBN()));
+            shelve(book);
+            journal(j, LoanJournal.Type.RETURN, book, student, null, seq);
+        }
+        circulation.returned(book, System.currentTimeMillis());
+        RETURN.recordSince(start);
+        return true;
+    }
+
+    // Moves the due date of a copy the student holds; returns the new date, or null if they don't hold it
+    public LocalDate renewLoan(Book book, Student student, UnaryOperator<LocalDate> newDueDate) {
+        LocalDate due;
+        synchronized (lockFor(book)) {
+            if (!isHeldBy(book, student)) {
+                return null;
+            }
+            due = newDueDate.apply(getDueDate(book));
+            setDueDate(book, due);
+            journal(LoanJournal.Type.RENEW, book, student, due);
+        }
+        return due;
+    }
+
+    public LoanService getLoanService() {
+        return loanService;
+    }
+
+    /**
+     * Changes the student's loans and queues the write under the student's
+     * lock, so remote sync, which checks for a queued write under the same
+     * lock, never sees the change before it is queued. Returns the journal
+     * sequence number the write was queued with; the change's journal event
+     * must carry the same one, so the write's FLUSHED record covers it.
+     */
+    private long changeLoans(LoanJournal j, Student student, Runnable change) {
+        synchronized (student) {
+            change.run();
+            studentsByBooksBorrowed.refresh(student);
+            return queueWrite(j, student);
+        }
+    }
+
+    // Queues the student's state under a fresh number from j, or 0 while no journal is open
+    private long queueWrite(LoanJournal j, Student student) {
+        long seq = (j == null) ? 0 : j.nextSeq();
+        writeQueue.enqueue(student, seq);
+        return seq;
+    }
+
+    private static boolean isHeldBy(Book book, Student student) {
+        Student holder = book.getPossesion();
+        return !book.getInLibrary() && holder != null && holder.getEmail().equalsIgnoreCase(student.getEmail());
+    }
+
+    private Object lockFor(Book book) {
+        return copyLocks[book.getID() & (LOCK_STRIPES - 1)];
+    }
+
+    // ====== REMOTE SYNC ======
+
+    // Follows saves from other desks; off with -Dlibrary.sync=false or when the student store cannot be watched
+    public void startStudentSync() {
+        if (studentSync != null || !Boolean.parseBoolean(System.getProperty("library.sync", "true"))) {
+            return;
+        }
+        StudentSync sync = new StudentSync(this, studentRepository, dataDirectory().resolve("students.checkpoint"));
+        if (sync.start(studentsAsOf)) {
+            studentSync = sync;
+        } else {
+            sync.close();
+        }
+    }
+
+    public StudentSync getStudentSync() {
+        return studentSync;
+    }
+
+    /**
+     * Applies student records changed elsewhere. Each student is updated in
+     * place and only the copies they gained or gave back change hands, so
+     * nothing is rescanned. Students with a local update still waiting to be
+     * written are skipped, since that newer state is about to overwrite the
+     * remote one; for a known student this is checked under the student's
+     * lock, which local loan changes hold until their write is queued.
+     */
+    void applyStudentChanges(List<StudentChange> changes) {
+        for (StudentChange change : changes) {
+            if (writeQueue.isPending(change.key())) {
+                continue;
+            }
+            Student local = students.get(change.key().toLowerCase(Locale.ROOT));
+
+            if (change.type() == StudentChange.Type.DELETED) {
+                if (local != null) {
+                    removeStudent(local);
+                }
+            } else if (local == null) {
+                Student added = change.student();
+                putStudent(added);
+                reconcileLoans(added);
+            } else {
+                applyRemoteState(local, change.student());
+            }
+        }
+    }
+
+    private void applyRemoteState(Student local, Student remote) {
+        Set<Integer> returned;
+        synchronized (local) {
+            if (writeQueue.isPending(local.getEmail())) {
+                return; // changed here since the check above
+            }
+            returned = new LinkedHashSet<>(local.getCurrentCopies());
+            reindexStudent(local, () -> local.copyFrom(remote));
+            returned.removeAll(local.getCurrentCopies());
+        }
+        releaseCopies(local, returned);
+        reconcileLoans(local);
+    }
+
+    private void removeStudent(Student student) {
+        synchronized (student) {
+            if (writeQueue.isPending(student.getEmail())) {
+                return; // changed here since the check above; the queued write recreates the record
+            }
+        }
+        releaseCopies(student, new ArrayList<>(student.getCurrentCopies()));
+        if (students.remove(student.getEmail().toLowerCase(Locale.ROOT), student)) {
+            unindexStudent(student);
+        }
+    }
+
+    // Puts back each listed copy the student still holds
+    private void releaseCopies(Student student, Collection<Integer> copyIds) {
+        for (int id : copyIds) {
+            Book book = copiesById.get(id);
+            if (book == null) {
+                continue;
+            }
+            synchronized (lockFor(book)) {
+                if (isHeldBy(book, student)) {
+                    shelve(book);
+                    journal(LoanJournal.Type.RETURN, book, student, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the copies on the student's record as lent to them and returns how
+     * many they hold. The record's ISBNs say what was borrowed. Copy IDs
+     * follow the catalog's row order, so after the catalog is edited a saved
+     * ID can name a copy of another title; an ID only counts for an ISBN the
+     * record lists, and is dropped otherwise. Loans left without a copy,
+     * including records saved before copies were tracked, each take a free
+     * copy of their ISBN, so several loans of one title land on different
+     * copies. A corrected record is written back.
+     */
+    private int reconcileLoans(Student student) {
+        List<Integer> copyIds;
+        List<String> isbns;
+        synchronized (student) {
+            copyIds = new ArrayList<>(student.getCurrentCopies());
+            isbns = new ArrayList<>(student.getCurrentBooks());
+        }
+
+        HashMap<String, Integer> uncovered = new HashMap<>();
+        for (String isbn : isbns) {
+            uncovered.merge(isbnKey(isbn), 1, Integer::sum);
+        }
+
+        int held = 0;
+        boolean changed = false;
+        for (int id : copyIds) {
+            Book book = copiesById.get(id);
+            String key = (book == null) ? null : isbnKey(book.getISBN());
+            if (book == null || uncovered.getOrDefault(key, 0) == 0) {
+                LOG.warning("stale copy=" + id + " holder=" + student.getEmail() + ": copy is missing or not one of the student's titles");
+                student.dropCopy(id);
+                changed = true;
+            } else if (!holdFor(book, student)) {
+                LOG.warning("loan conflict copy=" + id + " holder=" + student.getEmail() + ": copy is lent to someone else");
+                student.dropCopy(id);
+                changed = true;
+            } else {
+                uncovered.merge(key, -1, Integer::sum);
+                held++;
+            }
+        }
+
+        for (String isbn : isbns) {
+            String key = isbnKey(isbn);
+            int left = uncovered.getOrDefault(key, 0);
+            if (left == 0) {
+                continue;
+            }
+            uncovered.put(key, left - 1);
+            Book book = takeFreeCopy(isbn, student);
+            if (book == null) {
+                LOG.warning("loan conflict isbn=" + isbn + " holder=" + student.getEmail() + ": no free copy");
+                continue;
+            }
+            student.assignCopy(book.getID(), isbn);
+            changed = true;
+            held++;
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.fine("synced copy=" + book.getID() + " isbn=" + isbn + " holder=" + student.getEmail());
+            }
+        }
+        if (changed) {
+            updateStudent(student);
+        }
+        return held;
+    }
+
+    // Lends the copy to the student without touching their record; true if it is now theirs
+    private boolean holdFor(Book book, Student student) {
+        synchronized (lockFor(book)) {
+            if (book.getInLibrary()) {
+                // Lent at another desk while set aside here; the hold waits for the next copy
+                Hold hold = holds.reservation(book.getID());
+                if (hold != null) {
+                    holds.requeue(hold);
+                }
+                lend(book, student);
+                journal(LoanJournal.Type.BORROW, book, student, null);
+                return true;
+            }
+            return isHeldBy(book, student);
+        }
+    }
+
+    private Book takeFreeCopy(String isbn, Student student) {
+        CopyQueue free = freeCopies.get(isbnKey(isbn));
+        if (free == null) {
+            return null;
+        }
+        for (int id = free.poll(); id != CopyQueue.EMPTY; id = free.poll()) {
+            Book book = copiesById.get(id);
+            if (book != null) {
+                synchronized (lockFor(book)) {
+                    if (available.contains(book.getID())) {
+                        holdFor(book, student);
+                        return book;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Back in the library; the copy is set aside for the first hold waiting
+     * for its title, or else goes on the shelf at the end of its ISBN's free
+     * queue. Caller holds the copy's lock.
+     */
+    private void shelve(Book book) {
+        // Cleared while the holder is still set, so the fine tally knows whose loan ended
+        setDueDate(book, null);
+        setAside(book);
+        if (holds.reserveNext(book, System.currentTimeMillis()) == null) {
+            putOnShelf(book);
+        }
+    }
+
+    /*
+     * Copy states. A copy is in exactly one of three, and only these four
+     * methods move it between them, always under the copy's lock:
+     *
+     *   on the shelf   inLibrary, in available, queued in its ISBN's free queue
+     *   set aside      inLibrary, not in available, reserved by a ready hold
+     *   lent           not inLibrary, not in available, possesion is the borrower
+     *
+     * Every availability question is answered from available. inLibrary only
+     * tells a lent copy from one in the building, which is what is saved in
+     * the snapshot and shown in the UI; a set-aside copy is in the building
+     * but not available. The free queue may hold IDs that have since left the
+     * shelf; takers skip any ID not in available.
+     */
+
+    private void putOnShelf(Book book) {
+        book.setInLibrary(true);
+        book.setPossesion(null);
+        available.set(book.getID());
+        freeQueue(book.getISBN()).offer(book.getID());
+    }
+
+    // In the building but held back from the shelf, for a hold that is about to be made ready
+    private void setAside(Book book) {
+        book.setInLibrary(true);
+        book.setPossesion(null);
+        available.clear(book.getID());
+    }
+
+    // Shelf to set aside; false if the copy was not on the shelf
+    private boolean takeOffShelf(Book book) {
+        return book.getInLibrary() && available.update(book.getID(), false);
+    }
+
+    private void lend(Book book, Student student) {
+        book.setInLibrary(false);
+        available.clear(book.getID());
+        book.setPossesion(student);
+    }
+
+    // ====== LOAN JOURNAL ======
+
+    // Caller holds the copy's lock, so events for one copy are journaled in the order they happened
+    private void journal(LoanJournal.Type type, Book book, Student student, LocalDate due) {
+        LoanJournal j = journal;
+        if (j != null) {
+            journal(j, type, book, student, due, j.nextSeq());
+        }
+    }
+
+    // For a change whose student write changeLoans queued with seq, taken from the same j
+    private void journal(LoanJournal j, LoanJournal.Type type, Book book, Student student, LocalDate due, long seq) {
+        if (j != null) {
+            j.append(type, book.getID(), book.getISBN(), student.getEmail(), seq,
+                    due == null ? DueDateTable.NO_DATE : (int) due.toEpochDay());
+        }
+    }
+
+    // Replays the journal over what was loaded, then journals every change from here on
+    void openJournal(Path file) {
+        try {
+            LoanJournal opened = new LoanJournal(file);
+            applyJournal(opened);
+            journal = opened;
+        } catch (Exception e) {
+            System.out.println("⚠️ Could not open loan journal, due dates will not survive a restart: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Brings back what the student store may be missing. Due dates come back
+     * for loans the student records agree with. A loan or return journaled
+     * after the student was last saved never reached the store, so it is
+     * applied and written again. One the store already had is left to the
+     * records, which may show it undone at another desk since. An event is
+     * skipped if its copy ID now names a different title.
+     */
+    void applyJournal(LoanJournal opened) {
+        int dueDates = 0;
+        int recovered = 0;
+        for (LoanJournal.Event e : opened.getRecovered().values()) {
+            Book book = copiesById.get(e.copyId());
+            Student student = getStudentByEmail(e.email());
+            if (book == null || student == null || !isbnKey(book.getISBN()).equals(isbnKey(e.isbn()))) {
+                continue;
+            }
+            boolean unsaved = !opened.isFlushed(e);
+            LocalDate due = (e.dueDay() == DueDateTable.NO_DATE) ? null : LocalDate.ofEpochDay(e.dueDay());
+            synchronized (lockFor(book)) {
+                if (e.type() == LoanJournal.Type.RETURN) {
+                    if (unsaved && isHeldBy(book, student)) {
+                        changeLoans(opened, student, () -> student.removeLoan(book.getID(), book.getISBN()));
+                        shelve(book);
+                        recovered++;
+                    }
+                } else if (isHeldBy(book, student)) {
+                    setDueDate(book, due);
+                    dueDates++;
+                } else if (unsaved && available.contains(book.getID())) {
+                    lend(book, student);
+                    changeLoans(opened, student, () -> student.addLoan(book.getID(), book.getISBN()));
+                    setDueDate(book, due);
+                    recovered++;
+                }
+            }
+        }
+        System.out.println("✅ Loan journal replayed (" + dueDates + " due dates, " + recovered + " unsaved loans and returns recovered).");
+    }
+
+    // ====== HOLDS ======
+
+    public HoldService getHoldService() {
+        return holdService;
+    }
+
+    // Holds are kept next to the snapshot; loaded after the copies so ready holds can take back their copy
+    private void openHolds() {
+        try {
+            holdService.open(new FileHoldRepository(dataDirectory()));
+        } catch (Exception e) {
+            System.out.println("⚠️ Could not open hold store, holds will not survive a restart: " + e.getMessage());
+        }
+    }
+
+    // Joins the title's line, then hands out any copy returned meanwhile; null if the student is already in it
+    Hold placeHold(Student student, String isbn) {
+        Hold hold = holds.place(student, isbn, System.currentTimeMillis());
+        if (hold != null) {
+            fillHolds(isbn);
+        }
+        return hold;
+    }
+
+    boolean cancelHold(Hold hold) {
+        if (holds.cancelWaiting(hold)) {
+            return true;
+        }
+        int copyId = hold.getCopyId();
+        Book copy = copiesById.get(copyId);
+        if (copy == null) {
+            return false;
+        }
+        synchronized (lockFor(copy)) {
+            if (!holds.endReady(hold, copyId, Hold.Status.CANCELLED)) {
+                return false;
+            }
+            shelve(copy);
+        }
+        return true;
+    }
+
+    // Copies not picked up in time go to the next hold in line or back on the shelf
+    void expireHolds(long now) {
+        for (Hold hold : holds.overdue(now)) {
+            int copyId = hold.getCopyId();
+            Book copy = copiesById.get(copyId);
+            if (copy == null) {
+                continue;
+            }
+            synchronized (lockFor(copy)) {
+                if (hold.getReadyUntil() <= now && holds.endReady(hold, copyId, Hold.Status.EXPIRED)) {
+                    shelve(copy);
+                }
+            }
+        }
+    }
+
+    void restoreHolds(List<Hold> saved) {
+        for (Hold hold : saved) {
+            // A ready hold keeps its copy if the copy is still on the shelf
+            Book copy = (hold.getStatus() == Hold.Status.READY) ? copiesById.get(hold.getCopyId()) : null;
+            if (copy == null || !isbnKey(copy.getISBN()).equals(isbnKey(hold.getIsbn()))) {
+                holds.restore(hold, false);
+                continue;
+            }
+            synchronized (lockFor(copy)) {
+                holds.restore(hold, takeOffShelf(copy));
+            }
+        }
+        // Copies returned while holds were waiting but not yet handed out, e.g. after a crash
+        for (String isbn : holds.titlesWaiting()) {
+            fillHolds(isbn);
+        }
+    }
+
+    // Sets free copies of the ISBN aside for its waiting holds
+    private void fillHolds(String isbn) {
+        CopyQueue free = freeCopies.get(isbnKey(isbn));
+        while (free != null && holds.waitingFor(isbn) > 0) {
+            int id = free.poll();
+            if (id == CopyQueue.EMPTY) {
+                return;
+            }
+            Book copy = copiesById.get(id);
+            if (copy == null) {
+                continue;
+            }
+            synchronized (lockFor(copy)) {
+                if (takeOffShelf(copy) && holds.reserveNext(copy, System.currentTimeMillis()) == null) {
+                    // The line emptied meanwhile
+                    putOnShelf(copy);
+                    return;
+                }
+            }
+        }
+    }
+
     // ====== DUE DATE TRACKING ======
 
+    // Passing a null date clears the copy's due date; set the holder first so an overdue date is tallied against them
     public void setDueDate(Book book, LocalDate date) {
-        dueDates.put(book, date);
+        fines.setDueDate(book.getID(), (date == null) ? DueDateTable.NO_DATE : (int) date.toEpochDay());
     }
 
-    // 🆕 NEW: Sync book availability based on student borrowed books
-    private void syncBookAvailability() {
-        // Mark all books borrowed by students as unavailable
+    // Seeds the also-borrowed index from the loans open now; borrows from here on are added off the borrow path
+    private void indexLoans() {
         for (Student student : students.values()) {
-            for (String isbn : student.getCurrentBooks()) {
-                Book book = getBookByIsbn(isbn);
-                if (book != null) {
-                    book.setInLibrary(false);
-                    book.setPossesion(student);
-                    System.out.println("📚 Synced: " + book.getBookTitle() + " → borrowed by " + student.getFirstName());
-                }
+            List<String> isbns;
+            synchronized (student) {
+                isbns = new ArrayList<>(student.getCurrentBooks());
+            }
+            for (String isbn : isbns) {
+                alsoBorrowed.recordBorrow(student.getEmail(), isbn);
+            }
+        }
+    }
+
+    private void recordBorrowLater(String email, String isbn) {
+        unindexedBorrows.add(new Borrowed(email, isbn));
+        if (borrowDrainQueued.compareAndSet(false, true)) {
+            try {
+                borrowIndexer.execute(this::indexBorrows);
+            } catch (RejectedExecutionException e) {
+                // shutting down; shutdown() indexes what is left
+            }
+        }
+    }
+
+    // Cleared before polling, so a borrow queued during the drain schedules the next one
+    private void indexBorrows() {
+        borrowDrainQueued.set(false);
+        for (Borrowed b = unindexedBorrows.poll(); b != null; b = unindexedBorrows.poll()) {
+            alsoBorrowed.recordBorrow(b.email(), b.isbn());
+        }
+    }
+
+    // One copy of each title borrowed alongside the student's recent loans, best match first
+    public List<Book> getRecommendedBooks(Student student, int limit) {
+        List<Book> books = new ArrayList<>(limit);
+        for (String isbn : alsoBorrowed.recommendFor(student.getEmail(), limit)) {
+            Book book = getBookByIsbn(isbn);
+            if (book != null) {
+                books.add(book);
             }
         }
-        System.out.println("✅ Book availability synced with student records.");
+        return books;
+    }
+
+    public AlsoBorrowedIndex getAlsoBorrowedIndex() {
+        return alsoBorrowed;
+    }
+
+    public CirculationStats getCirculationStats() {
+        return circulation;
+    }
+
+    public OverdueFines getOverdueFines() {
+        return fines;
+    }
+
+    private Student holderOf(int copyId) {
+        Book book = copiesById.get(copyId);
+        return (book == null || book.getInLibrary()) ? null : book.getPossesion();
+    }
+
+    // Copies due strictly before the given date, earliest first
+    public List<Book> getBooksDueBefore(LocalDate date) {
+        return toBooks(dueDates.dueBefore((int) date.toEpochDay()));
+    }
+
+    // 🆕 NEW: Sync book availability based on student borrowed books
+    public void syncBookAvailability() {
+        // Mark every copy on a student's record as lent to them
+        int synced = 0;
+        for (Student student : students.values()) {
+            synced += reconcileLoans(student);
+        }
+        System.out.println("✅ Book availability synced with student records (" + synced + " copies on loan).");
     }
 
     public LocalDate getDueDate(Book book) {
-        return dueDates.get(book);
+        int day = dueDates.get(book.getID());
+        return (day == DueDateTable.NO_DATE) ? null : LocalDate.ofEpochDay(day);
     }
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+package edu.farmingdale.library.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Binary image of the catalog, students, loans and due dates, written on exit
+ * so the next launch can skip the CSV parse and the full student download.
+ *
+ * Students are only taken from the snapshot if the student store's version
+ * is the one recorded when it was written; a store that other desks write
+ * to, or one changed since, has no version to match, and then only the
+ * catalog is restored and the students are loaded from the store.
+ *
+ * Layout: a fixed header (magic, version, catalog fingerprint, student store
+ * version, creation time, body length, CRC32 of the body) followed by the
+ * body. The file is read into memory rather than mapped, so it can be
+ * replaced on exit on any platform, and any mismatch in the header means it
+ * is ignored.
+ */
+public class LibrarySnapshot {
+
+    private static final int MAGIC = 0x4C494253; // "LIBS"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8 + 8 + 8;
+    private static final long NO_STUDENT_VERSION = -1;
+
+    private final Path file;
+    private final long maxAgeMillis;
+
+    public LibrarySnapshot(Path file, long maxAgeMillis) {
+        this.file = file;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    // studentsVersion is the student store's version after the last save, or -1 if it has none
+    public void write(Library library, long catalogFingerprint, long studentsVersion) throws IOException {
+        Body body = new Body();
+
+        // In ID order so copies sharing an ISBN come back in the order they were first added
+        List<Book> books = library.getBooksSortedByID();
+        body.putInt(books.size());
+        for (Book b : books) {
+            body.putInt(b.getID());
+            body.putString(b.getISBN());
+            body.putString(b.getBookTitle());
+            body.putString(b.getAuthor());
+            body.putByte(b.getInLibrary() ? 1 : 0);
+            body.putString(b.getPossesion() == null ? null : b.getPossesion().getEmail());
+            LocalDate due = library.getDueDate(b);
+            body.putInt(due == null ? DueDateTable.NO_DATE : (int) due.toEpochDay());
+        }
+
+        Collection<Student> students = library.getAllStudents();
+        body.putInt(students.size());
+        for (Student s : students) {
+            body.putInt(s.getID());
+            body.putString(s.getEmail());
+            body.putString(s.getFirstName());
+            body.putString(s.getLastName());
+            body.putString(s.getPassword());
+            body.putInt(s.getCurrentBooks().size());
+            for (String isbn : s.getCurrentBooks()) {
+                body.putString(isbn);
+            }
+        }
+
+        ByteBuffer bytes = body.finish();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(catalogFingerprint).putLong(studentsVersion)
+                .putLong(System.currentTimeMillis()).putLong(bytes.remaining()).putLong(crc.getValue());
+        header.flip();
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) out.write(header);
+            while (bytes.hasRemaining()) out.write(bytes);
+            out.force(false);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores the snapshot into an empty library; returns false if it is
+     * missing, stale or corrupt. If studentsVersion is not the one it was
+     * written with, students come from the store instead.
+     */
+    public boolean read(Library library, long catalogFingerprint, long studentsVersion) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+
+        try {
+            ByteBuffer map = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (map.remaining() < HEADER_BYTES
+                    || map.getInt() != MAGIC
+                    || map.getInt() != VERSION
+                    || map.getLong() != catalogFingerprint
+                    || catalogFingerprint == 0) {
+                return false;
+            }
+            long savedStudentsVersion = map.getLong();
+            long createdAt = map.getLong();
+            long length = map.getLong();
+            long checksum = map.getLong();
+            if (System.currentTimeMillis() - createdAt > maxAgeMillis || length != map.remaining()) {
+                return false;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(map.duplicate());
+            if (crc.getValue() != checksum) {
+                System.out.println("⚠️ Snapshot checksum mismatch, ignoring " + file);
+                return false;
+            }
+
+            if (studentsVersion != NO_STUDENT_VERSION && studentsVersion == savedStudentsVersion) {
+                restore(library, map, true);
+                library.setStudentsAsOf(createdAt);
+            } else {
+                System.out.println("⏳ Snapshot restores the catalog only; loading students from the store.");
+                restore(library, map, false);
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("⚠️ Could not read snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Without students, every copy comes back on the shelf and loans are rebuilt from the store's records
+    private static void restore(Library library, ByteBuffer in, boolean withStudents) {
+        int bookCount = in.getInt();
+        List<Book> books = new ArrayList<>(bookCount);
+        List<String> holders = new ArrayList<>(bookCount);
+        int[] dueDays = new int[bookCount];
+        for (int i = 0; i < bookCount; i++) {
+            int id = in.getInt();
+            String isbn = getString(in);
+            String title = getString(in);
+            String author = getString(in);
+            boolean inLibrary = in.get() == 1;
+            holders.add(getString(in));
+            dueDays[i] = in.getInt();
+            books.add(new Book(id, isbn, title, author, inLibrary || !withStudents, null));
+        }
+
+        if (!withStudents) {
+            books.forEach(library::addBookCopy);
+            library.loadStudents();
+            library.syncBookAvailability();
+            // Due dates are kept for loans the store still shows with the same student
+            for (int i = 0; i < bookCount; i++) {
+                Book b = books.get(i);
+                Student holder = b.getPossesion();
+                if (dueDays[i] != DueDateTable.NO_DATE && !b.getInLibrary() && holder != null
+                        && holder.getEmail().equalsIgnoreCase(holders.get(i))) {
+                    library.setDueDate(b, LocalDate.ofEpochDay(dueDays[i]));
+                }
+            }
+            return;
+        }
+
+        int studentCount = in.getInt();
+        for (int i = 0; i < studentCount; i++) {
+            int id = in.getInt();
+            String email = getString(in);
+            String first = getString(in);
+            String last = getString(in);
+            String password = getString(in);
+            int loans = in.getInt();
+            List<String> isbns = new ArrayList<>(loans);
+            for (int j = 0; j < loans; j++) {
+                isbns.add(getString(in));
+            }
+            library.restoreStudent(new Student(id, password, email, last, first, isbns));
+        }
+
+        for (int i = 0; i < bookCount; i++) {
+            Book b = books.get(i);
+            if (holders.get(i) != null) {
+                Student holder = library.getStudentByEmail(holders.get(i));
+                b.setPossesion(holder);
+                // The snapshot records each copy's holder, which is where the student's copy IDs come from
+                if (holder != null) {
+                    holder.assignCopy(b.getID(), b.getISBN());
+                }
+            }
+            library.addBookCopy(b);
+            if (dueDays[i] != DueDateTable.NO_DATE) {
+                library.setDueDate(b, LocalDate.ofEpochDay(dueDays[i]));
+            }
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Growable big-endian buffer for the snapshot body
+    private static class Body {
+        private ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+
+        void putByte(int v) {
+            ensure(1);
+            buf.put((byte) v);
+        }
+
+        void putInt(int v) {
+            ensure(4);
+            buf.putInt(v);
+        }
+
+        void putString(String s) {
+            if (s == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            buf.put(bytes);
+        }
+
+        ByteBuffer finish() {
+            buf.flip();
+            return buf;
+        }
+
+        private void ensure(int bytes) {
+            if (buf.remaining() < bytes) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + bytes));
+                buf.flip();
+                bigger.put(buf);
+                buf = bigger;
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package edu.farmingdale.library.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Students ordered by the number of books they have out. Each entry keeps
+ * the count it was sorted by, taken when the entry was made, so a loan list
+ * changed behind the index's back (a remote copyFrom, say) leaves the order
+ * stale until the next refresh() instead of corrupting the skip list.
+ * refresh() adds the new entry before dropping the old one, so a reader
+ * never misses the student; a read that overlaps the move skips the second
+ * sighting.
+ */
+final class LoanCountIndex {
+
+    private record Entry(Student student, String email, int count) {}
+
+    // Emails are unique, so they break ties
+    private final SortedIndex<Entry> entries = new SortedIndex<>(
+            Comparator.comparingInt(Entry::count).thenComparing(Entry::email));
+    private final ConcurrentHashMap<String, Entry> current = new ConcurrentHashMap<>();
+
+    void add(Student student) {
+        refresh(student);
+    }
+
+    void remove(Student student) {
+        Entry entry = current.remove(key(student));
+        if (entry != null) {
+            entries.remove(entry);
+        }
+    }
+
+    // Re-sorts the student by the loans they hold now; call after any change to them
+    void refresh(Student student) {
+        String email = key(student);
+        synchronized (student) {
+            int count = student.getCurrentBooks().size();
+            current.compute(email, (k, old) -> {
+                if (old != null && old.student() == student && old.count() == count) {
+                    return old;
+                }
+                Entry entry = new Entry(student, email, count);
+                entries.add(entry);
+                if (old != null) {
+                    entries.remove(old);
+                }
+                return entry;
+            });
+        }
+    }
+
+    int size() {
+        return current.size();
+    }
+
+    List<Student> toList() {
+        return students(entries.toList());
+    }
+
+    // Up to limit students after the cursor, by the cursor's count as last indexed
+    List<Student> page(Student after, int limit) {
+        Entry cursor = null;
+        if (after != null) {
+            cursor = current.get(key(after));
+            if (cursor == null) {
+                cursor = new Entry(after, key(after), after.getCurrentBooks().size());
+            }
+        }
+        return students(entries.page(cursor, limit));
+    }
+
+    private static List<Student> students(List<Entry> page) {
+        List<Student> out = new ArrayList<>(page.size());
+        Set<Student> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Entry entry : page) {
+            if (seen.add(entry.student())) {
+                out.add(entry.student());
+            }
+        }
+        return out;
+    }
+
+    private static String key(Student student) {
+        return student.getEmail().toLowerCase(Locale.ROOT);
+    }
+}
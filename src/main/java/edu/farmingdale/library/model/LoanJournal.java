@@ -0,0 +1,428 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.metrics.LatencyHistogram;
+import edu.farmingdale.library.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of circulation events (borrow, return, renew), so
+ * loans and due dates made at this desk survive a restart even when the
+ * student write queue or the snapshot did not get to them.
+ *
+ * The file is memory mapped and an append only copies a few dozen bytes
+ * into the mapping. A background thread forces the written range to disk
+ * every -Dlibrary.journalSyncMillis (default 5), so all appends in that
+ * window share one fsync; that window is what a crash can lose.
+ *
+ * Every event carries a sequence number from nextSeq(), which keeps counting
+ * across restarts. A change to a student's loans takes one number and uses
+ * it for both its event and the student state it queues for writing, so when
+ * the write queue saves that state, a FLUSHED record with the same number
+ * says which events the store has. Loan events up to the student's last
+ * FLUSHED record are already in the student store, where another desk may
+ * have changed them since, so replay only uses them for due dates; only
+ * later events are loans or returns the store may be missing. Each event
+ * also carries its copy's ISBN, since copy IDs move when the catalog is
+ * edited.
+ *
+ * The journal lives in numbered segment files (loans.journal.1, .2, ...)
+ * and the highest number is the live one. Once it is three quarters full it
+ * is compacted: the last event of each copy, less returns already saved,
+ * and the last FLUSHED record of each student are written to the next
+ * segment, which takes over. The old segment is deleted rather than
+ * replaced, since its mapping lasts until it is garbage collected and
+ * Windows will not replace a mapped file; if it cannot be deleted yet, a
+ * later compaction or open deletes it.
+ *
+ * Layout: magic and version, then records of
+ * [int length][byte type][int copy ID][long seq][int due day][short ISBN length][ISBN][short email length][email][int CRC32],
+ * where length counts everything after itself. A zero length marks the end,
+ * and a record whose CRC does not match (a torn write) ends the replay.
+ * Replaying a record twice gives the same state, so compaction does not need
+ * to stop appends that race with it.
+ */
+public class LoanJournal implements AutoCloseable {
+
+    // FLUSHED says the student's state as of seq is in the student store; it has no copy
+    public enum Type { BORROW, RETURN, RENEW, FLUSHED }
+
+    // dueDay is in epoch days, or DueDateTable.NO_DATE
+    public record Event(Type type, int copyId, String isbn, String email, long seq, int dueDay) {}
+
+    private static final int MAGIC = 0x4C4F414E; // "LOAN"
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_RECORD_BYTES = 1 + 4 + 8 + 4 + 2 + 2 + 4;
+    private static final int NO_COPY = -1;
+
+    private static final LatencyHistogram APPEND = Metrics.latency("journal.append");
+    private static final LatencyHistogram SYNC = Metrics.latency("journal.sync");
+
+    private final Path file; // segments are named after it
+    private final long segmentBytes;
+    private final ScheduledExecutorService syncer;
+    private final Map<Integer, Event> recovered;
+    private final AtomicLong lastSeq = new AtomicLong();
+
+    // Guarded by this; what compaction keeps
+    private final HashMap<Integer, Event> lastByCopy = new HashMap<>();
+    private final HashMap<String, Long> flushedAt = new HashMap<>();
+    private long generation;
+    private Path segment;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int tail;
+    private int synced;
+    private boolean compacting;
+
+    // Opens the journal, creating it if needed, and replays it
+    public LoanJournal(Path file) throws IOException {
+        this(file, Long.getLong("library.journalSegmentMB", 16) << 20, Long.getLong("library.journalSyncMillis", 5));
+    }
+
+    LoanJournal(Path file, long segmentBytes, long syncMillis) throws IOException {
+        this.file = file;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        generation = newestGeneration();
+        segment = segment(generation);
+        if (!Files.exists(segment)) {
+            createSegment(segment, List.of());
+        }
+        this.recovered = new HashMap<>(open());
+        dropSegmentsBefore(generation);
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "loan-journal");
+            t.setDaemon(true);
+            return t;
+        });
+        syncer.scheduleWithFixedDelay(this::syncAndCompact, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // The last event replayed for each copy when the journal was opened
+    public Map<Integer, Event> getRecovered() {
+        return recovered;
+    }
+
+    // True if the student store already had the event when the student was last saved
+    public synchronized boolean isFlushed(Event e) {
+        Long flushed = flushedAt.get(e.email().toLowerCase(Locale.ROOT));
+        // The state queued with the event's own number includes it
+        return flushed != null && e.seq() <= flushed;
+    }
+
+    // A number greater than any handed out or replayed before, for an event and the write that carries it
+    public long nextSeq() {
+        return lastSeq.incrementAndGet();
+    }
+
+    public void append(Type type, int copyId, String isbn, String email, long seq, int dueDay) {
+        append(new Event(type, copyId, isbn, email, seq, dueDay));
+    }
+
+    // Notes that the student's state as of the given number has been saved to the student store
+    public void markFlushed(String email, long seq) {
+        append(new Event(Type.FLUSHED, NO_COPY, "", email, seq, DueDateTable.NO_DATE));
+    }
+
+    private void append(Event event) {
+        long start = System.nanoTime();
+        byte[] body = encode(event);
+        int length = body.length + 4;
+        synchronized (this) {
+            if (tail + 4 + length + 4 > map.capacity()) {
+                try {
+                    // Compaction fell behind; make room now rather than drop the event
+                    remap(map.capacity() * 2L);
+                } catch (IOException e) {
+                    System.out.println("⚠️ Loan journal is full and could not grow: " + e.getMessage());
+                    return;
+                }
+            }
+            int at = tail + 4;
+            map.put(at, body);
+            map.putInt(at + body.length, crc(map, at, body.length));
+            // Length last, so a reader never follows a length into a half-written record
+            map.putInt(tail, length);
+            tail = at + length;
+            remember(event);
+        }
+        APPEND.recordSince(start);
+    }
+
+    // Forces everything appended so far to disk
+    public void sync() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            if (tail == synced) {
+                return;
+            }
+            map.force(synced, tail - synced);
+            synced = tail;
+        }
+        SYNC.recordSince(start);
+    }
+
+    @Override
+    public void close() {
+        syncer.shutdown();
+        try {
+            syncer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            sync();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // the mapping stays valid until it is collected
+            }
+        }
+    }
+
+    private void syncAndCompact() {
+        try {
+            sync();
+            boolean full;
+            synchronized (this) {
+                full = tail > map.capacity() / 4 * 3 && !compacting;
+            }
+            if (full) {
+                compact();
+            }
+        } catch (RuntimeException | IOException e) {
+            System.out.println("⚠️ Loan journal maintenance failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the journal with the events replay still needs. They are
+     * listed under the lock but written without it, so appends carry on
+     * meanwhile; records appended since compaction started are copied over
+     * after them, and replaying those on top is harmless.
+     */
+    private void compact() throws IOException {
+        int from;
+        List<Event> kept = new ArrayList<>();
+        synchronized (this) {
+            compacting = true;
+            from = tail;
+            // A saved return leaves nothing to replay; the copy's store record says where it is
+            lastByCopy.values().removeIf(e -> e.type() == Type.RETURN && isFlushed(e));
+            kept.addAll(lastByCopy.values());
+            flushedAt.forEach((email, at) ->
+                    kept.add(new Event(Type.FLUSHED, NO_COPY, "", email, at, DueDateTable.NO_DATE)));
+        }
+        long current;
+        try {
+            Path next = segment(generation + 1);
+            Path tmp = tmpFor(next);
+            writeFile(tmp, kept);
+            synchronized (this) {
+                try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    ByteBuffer raced = map.slice(from, tail - from);
+                    while (raced.hasRemaining()) out.write(raced);
+                    out.force(false);
+                }
+                // A new name, so nothing replaces the segment still mapped
+                Files.move(tmp, next, StandardCopyOption.ATOMIC_MOVE);
+                channel.close();
+                generation++;
+                segment = next;
+                open();
+                if (tail > map.capacity() / 4 * 3) {
+                    // What replay still needs fills most of a segment
+                    remap(map.capacity() * 2L);
+                }
+                current = generation;
+            }
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+        dropSegmentsBefore(current);
+    }
+
+    // Maps the live segment and replays it, leaving the tail after the last good record
+    private synchronized Map<Integer, Event> open() throws IOException {
+        channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, channel.size()));
+        if (map.getInt(0) != MAGIC) {
+            throw new IOException("Not a loan journal: " + segment);
+        }
+        if (map.getInt(4) != VERSION) {
+            // Written by an older build; its events lack what replay now checks
+            System.out.println("⚠️ Loan journal format changed, starting a new one: " + segment);
+            channel.close();
+            generation++;
+            segment = segment(generation);
+            createSegment(segment, List.of());
+            return open();
+        }
+
+        lastByCopy.clear();
+        flushedAt.clear();
+        int pos = HEADER_BYTES;
+        while (pos + 4 <= map.capacity()) {
+            int length = map.getInt(pos);
+            int body = pos + 4;
+            if (length < FIXED_RECORD_BYTES || body + length > map.capacity()
+                    || map.getInt(body + length - 4) != crc(map, body, length - 4)) {
+                break;
+            }
+            remember(read(map, body));
+            pos = body + length;
+        }
+        // After a torn record, clear the rest so records written before the crash can't follow new appends
+        if (pos + 4 <= map.capacity() && map.getInt(pos) != 0) {
+            for (int i = pos; i < map.capacity(); i++) {
+                map.put(i, (byte) 0);
+            }
+            map.force();
+        }
+        tail = pos;
+        synced = pos;
+        return lastByCopy;
+    }
+
+    private Path segment(long gen) {
+        return file.resolveSibling(file.getFileName() + "." + gen);
+    }
+
+    private static Path tmpFor(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    // The segment number after the file name, or 0 if the name is not a segment's
+    private long generationOf(Path path) {
+        String name = path.getFileName().toString();
+        String prefix = file.getFileName() + ".";
+        if (!name.startsWith(prefix) || name.length() == prefix.length()) {
+            return 0;
+        }
+        String digits = name.substring(prefix.length());
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i))) {
+                return 0;
+            }
+        }
+        return Long.parseLong(digits);
+    }
+
+    // The highest segment number on disk, or 1 for a new journal
+    private long newestGeneration() throws IOException {
+        long newest = 1;
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(file.toAbsolutePath().getParent(), file.getFileName() + ".*")) {
+            for (Path path : dir) {
+                newest = Math.max(newest, generationOf(path));
+            }
+        }
+        return newest;
+    }
+
+    // Best effort; a segment still mapped on Windows stays until the next try
+    private void dropSegmentsBefore(long gen) {
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(file.toAbsolutePath().getParent(), file.getFileName() + ".*")) {
+            for (Path path : dir) {
+                long g = generationOf(path);
+                if (g > 0 && g < gen) {
+                    Files.deleteIfExists(path);
+                }
+            }
+            // Before segments the journal was one file, in a format replay no longer reads
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // left for the next compaction or open
+        }
+    }
+
+    // Written under a temporary name and moved into place, so a segment on disk is never half written
+    private static void createSegment(Path target, List<Event> events) throws IOException {
+        Path tmp = tmpFor(target);
+        writeFile(tmp, events);
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void remember(Event e) {
+        lastSeq.accumulateAndGet(e.seq(), Math::max);
+        if (e.type() == Type.FLUSHED) {
+            flushedAt.merge(e.email().toLowerCase(Locale.ROOT), e.seq(), Math::max);
+        } else {
+            lastByCopy.put(e.copyId(), e);
+        }
+    }
+
+    private void remap(long bytes) throws IOException {
+        map.force();
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+    }
+
+    private static Event read(ByteBuffer map, int body) {
+        byte[] isbn = new byte[map.getShort(body + 17)];
+        map.get(body + 19, isbn);
+        int emailAt = body + 19 + isbn.length;
+        byte[] email = new byte[map.getShort(emailAt)];
+        map.get(emailAt + 2, email);
+        return new Event(Type.values()[map.get(body)], map.getInt(body + 1), new String(isbn, StandardCharsets.UTF_8),
+                new String(email, StandardCharsets.UTF_8), map.getLong(body + 5), map.getInt(body + 13));
+    }
+
+    // Record body without its CRC
+    private static byte[] encode(Event e) {
+        byte[] isbn = e.isbn().getBytes(StandardCharsets.UTF_8);
+        byte[] email = e.email().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(FIXED_RECORD_BYTES - 4 + isbn.length + email.length)
+                .put((byte) e.type().ordinal()).putInt(e.copyId()).putLong(e.seq()).putInt(e.dueDay())
+                .putShort((short) isbn.length).put(isbn).putShort((short) email.length).put(email)
+                .array();
+    }
+
+    private static int crc(ByteBuffer map, int from, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(map.slice(from, length));
+        return (int) crc.getValue();
+    }
+
+    // Header and one record per event
+    private static void writeFile(Path target, List<Event> events) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + events.size() * (4 + FIXED_RECORD_BYTES + 48));
+        out.putInt(MAGIC).putInt(VERSION);
+        for (Event e : events) {
+            byte[] body = encode(e);
+            int length = body.length + 4;
+            if (out.remaining() < 4 + length) {
+                ByteBuffer grown = ByteBuffer.allocate(out.capacity() * 2 + length);
+                out.flip();
+                out = grown.put(out);
+            }
+            out.putInt(length);
+            int at = out.position();
+            out.put(body);
+            out.putInt(crc(out, at, body.length));
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) channel.write(out);
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package edu.farmingdale.library.model;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Borrow, return and renew operations, independent of any UI. Each call
+ * returns a LoanResult rather than throwing, so batch callers and load
+ * tests can run many operations and inspect the outcomes afterwards.
+ */
+public class LoanService {
+
+    public static final Period DEFAULT_LOAN_PERIOD = Period.ofWeeks(2);
+
+    public enum Status {
+        OK,
+        NOT_FOUND,      // no copy with that ID or ISBN
+        NOT_AVAILABLE,  // copy is already checked out, or every copy of the ISBN is
+        NOT_HELD        // copy is not checked out to this student
+    }
+
+    public record LoanResult(Status status, Book book, LocalDate dueDate) {
+        public boolean isSuccess() {
+            return status == Status.OK;
+        }
+    }
+
+    private final Library library;
+    private final Period loanPeriod;
+    private final Clock clock;
+
+    public LoanService(Library library) {
+        this(library, DEFAULT_LOAN_PERIOD, Clock.systemDefaultZone());
+    }
+
+    public LoanService(Library library, Period loanPeriod, Clock clock) {
+        this.library = library;
+        this.loanPeriod = loanPeriod;
+        this.clock = clock;
+    }
+
+    public LoanResult borrow(Student student, Book book) {
+        if (book == null) {
+            return new LoanResult(Status.NOT_FOUND, null, null);
+        }
+        LocalDate due = LocalDate.now(clock).plus(loanPeriod);
+        return library.checkOut(book, student, due)
+                ? new LoanResult(Status.OK, book, due)
+                : new LoanResult(Status.NOT_AVAILABLE, book, null);
+    }
+
+    public LoanResult borrow(Student student, int copyId) {
+        return borrow(student, library.getBookByID(copyId));
+    }
+
+    // Borrows whichever copy of the title is free; the result holds the copy that was lent
+    public LoanResult borrowAny(Student student, String isbn) {
+        if (library.getCopiesByIsbn(isbn).isEmpty()) {
+            return new LoanResult(Status.NOT_FOUND, null, null);
+        }
+        LocalDate due = LocalDate.now(clock).plus(loanPeriod);
+        Book book = library.checkOutAnyCopy(isbn, student, due);
+        return (book != null)
+                ? new LoanResult(Status.OK, book, due)
+                : new LoanResult(Status.NOT_AVAILABLE, null, null);
+    }
+
+    public LoanResult returnBook(Student student, Book book) {
+        if (book == null) {
+            return new LoanResult(Status.NOT_FOUND, null, null);
+        }
+        return library.checkIn(book, student)
+                ? new LoanResult(Status.OK, book, null)
+                : new LoanResult(Status.NOT_HELD, book, null);
+    }
+
+    public LoanResult returnBook(Student student, int copyId) {
+        return returnBook(student, library.getBookByID(copyId));
+    }
+
+    // Extends the loan by one loan period, counted from today or the current due date, whichever is later
+    public LoanResult renew(Student student, Book book) {
+        if (book == null) {
+            return new LoanResult(Status.NOT_FOUND, null, null);
+        }
+        LocalDate today = LocalDate.now(clock);
+        LocalDate due = library.renewLoan(book, student, current ->
+                (current == null || current.isBefore(today) ? today : current).plus(loanPeriod));
+        return (due != null)
+                ? new LoanResult(Status.OK, book, due)
+                : new LoanResult(Status.NOT_HELD, book, null);
+    }
+
+    // ====== BULK OPERATIONS ======
+
+    public List<LoanResult> borrowAll(Student student, List<Book> books) {
+        List<LoanResult> results = new ArrayList<>(books.size());
+        for (Book book : books) {
+            results.add(borrow(student, book));
+        }
+        return results;
+    }
+
+    public List<LoanResult> returnAll(Student student, List<Book> books) {
+        List<LoanResult> results = new ArrayList<>(books.size());
+        for (Book book : books) {
+            results.add(returnBook(student, book));
+        }
+        return results;
+    }
+
+    public List<LoanResult> renewAll(Student student, List<Book> books) {
+        List<LoanResult> results = new ArrayList<>(books.size());
+        for (Book book : books) {
+            results.add(renew(student, book));
+        }
+        return results;
+    }
+}
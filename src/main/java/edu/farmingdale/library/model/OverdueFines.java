@@ -0,0 +1,299 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.metrics.LatencyHistogram;
+import edu.farmingdale.library.metrics.Metrics;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+
+/**
+ * Overdue loans and the fines they have run up, kept per student. A loan
+ * accrues -Dlibrary.fineCentsPerDay (default 25) for each day past its due
+ * date, up to -Dlibrary.fineCapCents (default 1000) per loan. A rate of 0
+ * or less turns fines off: overdue loans are still counted, but never cost
+ * anything and never reach a cap.
+ *
+ * Each student's tally only holds counts and the sum of due days, so a
+ * student's accrued fine is arithmetic on the tally rather than a walk over
+ * their loans. Every due date change goes through setDueDate, which keeps
+ * the tallies in step, and when the day rolls over only the loans due on the
+ * two days that change state are touched: those that just became overdue and
+ * those that just reached the cap. A full recount runs as a fork-join pass
+ * over the due-date table at startup and after a long gap.
+ */
+public class OverdueFines implements AutoCloseable {
+
+    public record OverdueStudent(String email, int overdueLoans, long fineCents) {}
+
+    // Rolling over this many days one at a time would cost more than a recount
+    private static final int MAX_INCREMENTAL_DAYS = 31;
+    private static final int RECOUNT_SPLIT = 16_384;
+
+    private static final LatencyHistogram RECOUNT = Metrics.latency("fines.recount");
+    private static final LatencyHistogram ROLLOVER = Metrics.latency("fines.rollover");
+
+    // Loans of one student that are overdue today
+    private final class Tally {
+        int accruing;  // fewer than capDays overdue
+        long dueDaySum; // of the accruing loans
+        int capped;
+
+        void add(int dueDay, int today) {
+            if (today - dueDay >= capDays) {
+                capped++;
+            } else {
+                accruing++;
+                dueDaySum += dueDay;
+            }
+        }
+
+        void remove(int dueDay, int today) {
+            if (today - dueDay >= capDays) {
+                capped--;
+            } else {
+                accruing--;
+                dueDaySum -= dueDay;
+            }
+        }
+
+        void merge(Tally other) {
+            accruing += other.accruing;
+            dueDaySum += other.dueDaySum;
+            capped += other.capped;
+        }
+
+        long cents(int today) {
+            if (centsPerDay <= 0) {
+                return 0;
+            }
+            return centsPerDay * (accruing * (long) today - dueDaySum) + capCents * capped;
+        }
+
+        boolean isEmpty() {
+            return accruing == 0 && capped == 0;
+        }
+    }
+
+    private final DueDateTable dueDates;
+    private final IntFunction<Student> holderOf;
+    private final Clock clock;
+    private final long centsPerDay;
+    private final long capCents;
+    // Days overdue at which a loan's fine stops growing; never reached when fines are off
+    private final int capDays;
+    private ScheduledExecutorService dayWatch;
+
+    // Guarded by this
+    private HashMap<String, Tally> tallies = new HashMap<>();
+    private int today;
+
+    OverdueFines(DueDateTable dueDates, IntFunction<Student> holderOf, Clock clock) {
+        this(dueDates, holderOf, clock,
+                Long.getLong("library.fineCentsPerDay", 25), Long.getLong("library.fineCapCents", 1000));
+    }
+
+    OverdueFines(DueDateTable dueDates, IntFunction<Student> holderOf, Clock clock, long centsPerDay, long capCents) {
+        this.dueDates = dueDates;
+        this.holderOf = holderOf;
+        this.clock = clock;
+        this.centsPerDay = centsPerDay;
+        this.capCents = Math.max(0, capCents);
+        this.capDays = (centsPerDay <= 0) ? Integer.MAX_VALUE
+                : (int) Math.max(1, (this.capCents + centsPerDay - 1) / centsPerDay);
+        this.today = (int) LocalDate.now(clock).toEpochDay();
+    }
+
+    // Counts the loans already on the table, then checks for a new day every minute
+    synchronized void start() {
+        if (dayWatch != null) {
+            return;
+        }
+        recount();
+        dayWatch = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "overdue-fines");
+            t.setDaemon(true);
+            return t;
+        });
+        dayWatch.scheduleWithFixedDelay(this::rollOver, 1, 1, TimeUnit.MINUTES);
+    }
+
+    // ====== LOAN CHANGES ======
+
+    // The only way due dates change, so tallies never go stale; the copy's holder must already be set
+    void setDueDate(int copyId, int dueDay) {
+        synchronized (this) {
+            int old = dueDates.get(copyId);
+            if (dueDay == DueDateTable.NO_DATE) {
+                dueDates.remove(copyId);
+            } else {
+                dueDates.put(copyId, dueDay);
+            }
+            Student holder = holderOf.apply(copyId);
+            if (holder == null) {
+                return;
+            }
+            if (old != DueDateTable.NO_DATE && old < today) {
+                Tally t = tallies.get(key(holder));
+                if (t != null) {
+                    t.remove(old, today);
+                    if (t.isEmpty()) tallies.remove(key(holder));
+                }
+            }
+            if (dueDay != DueDateTable.NO_DATE && dueDay < today) {
+                tallies.computeIfAbsent(key(holder), k -> new Tally()).add(dueDay, today);
+            }
+        }
+    }
+
+    // ====== QUERIES ======
+
+    // What the student's overdue loans have run up as of today
+    public synchronized long getFineCents(Student student) {
+        Tally t = tallies.get(key(student));
+        return (t == null) ? 0 : t.cents(today);
+    }
+
+    public synchronized int getOverdueCount(Student student) {
+        Tally t = tallies.get(key(student));
+        return (t == null) ? 0 : t.accruing + t.capped;
+    }
+
+    public synchronized int getStudentsOverdue() {
+        return tallies.size();
+    }
+
+    /**
+     * Students with overdue loans, largest accrued fine first. Only the top
+     * entries are kept while scanning, so a short report over many students
+     * costs one pass and a small heap.
+     */
+    public synchronized List<OverdueStudent> getMostOverdue(int limit) {
+        Comparator<OverdueStudent> byFine = Comparator.comparingLong(OverdueStudent::fineCents)
+                .thenComparingInt(OverdueStudent::overdueLoans);
+        PriorityQueue<OverdueStudent> top = new PriorityQueue<>(byFine);
+        for (Map.Entry<String, Tally> e : tallies.entrySet()) {
+            Tally t = e.getValue();
+            top.add(new OverdueStudent(e.getKey(), t.accruing + t.capped, t.cents(today)));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<OverdueStudent> report = new ArrayList<>(top);
+        report.sort(byFine.reversed());
+        return report;
+    }
+
+    // ====== DAY ROLLOVER ======
+
+    // Brings the tallies to the current date; runs every minute and is a no-op within a day
+    public void rollOver() {
+        int now = (int) LocalDate.now(clock).toEpochDay();
+        synchronized (this) {
+            if (now <= today) {
+                return;
+            }
+            if (now - today > MAX_INCREMENTAL_DAYS) {
+                recount(now);
+                return;
+            }
+            long start = System.nanoTime();
+            for (int day = today + 1; day <= now; day++) {
+                advanceTo(day);
+            }
+            ROLLOVER.recordSince(start);
+        }
+    }
+
+    // Moves from day - 1 to day; only loans due yesterday or reaching the cap today change state
+    private void advanceTo(int day) {
+        // With a one-day cap, loans due yesterday go straight to capped below; with fines off nothing caps
+        int[] capping = (capDays > 1 && capDays != Integer.MAX_VALUE) ? dueDates.dueOn(day - capDays) : new int[0];
+        for (int id : capping) {
+            Student holder = holderOf.apply(id);
+            Tally t = (holder == null) ? null : tallies.get(key(holder));
+            if (t != null) {
+                t.accruing--;
+                t.dueDaySum -= day - capDays;
+                t.capped++;
+            }
+        }
+        today = day;
+        for (int id : dueDates.dueOn(day - 1)) {
+            Student holder = holderOf.apply(id);
+            if (holder != null) {
+                tallies.computeIfAbsent(key(holder), k -> new Tally()).add(day - 1, day);
+            }
+        }
+    }
+
+    // ====== FULL RECOUNT ======
+
+    public void recount() {
+        recount((int) LocalDate.now(clock).toEpochDay());
+    }
+
+    // Holding the lock keeps setDueDate out, so the table cannot change under the pass
+    private synchronized void recount(int day) {
+        long start = System.nanoTime();
+        DueDateTable.Entries overdue = dueDates.entriesDueBefore(day);
+        tallies = ForkJoinPool.commonPool().invoke(new CountTask(overdue, 0, overdue.ids().length, day));
+        today = day;
+        RECOUNT.recordSince(start);
+    }
+
+    // Tallies one range of the overdue loans, splitting it while it is large
+    private final class CountTask extends RecursiveTask<HashMap<String, Tally>> {
+        private static final long serialVersionUID = 1L;
+
+        private final DueDateTable.Entries entries;
+        private final int from;
+        private final int to;
+        private final int day;
+
+        CountTask(DueDateTable.Entries entries, int from, int to, int day) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.day = day;
+        }
+
+        @Override
+        protected HashMap<String, Tally> compute() {
+            if (to - from > RECOUNT_SPLIT) {
+                int mid = (from + to) >>> 1;
+                CountTask left = new CountTask(entries, from, mid, day);
+                left.fork();
+                HashMap<String, Tally> right = new CountTask(entries, mid, to, day).compute();
+                HashMap<String, Tally> merged = left.join();
+                right.forEach((k, t) -> merged.merge(k, t, (a, b) -> {
+                    a.merge(b);
+                    return a;
+                }));
+                return merged;
+            }
+
+            HashMap<String, Tally> out = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                Student holder = holderOf.apply(entries.ids()[i]);
+                if (holder != null) {
+                    out.computeIfAbsent(key(holder), k -> new Tally()).add(entries.days()[i], day);
+                }
+            }
+            return out;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (dayWatch != null) {
+            dayWatch.shutdownNow();
+        }
+    }
+
+    private static String key(Student student) {
+        return student.getEmail().toLowerCase(Locale.ROOT);
+    }
+}
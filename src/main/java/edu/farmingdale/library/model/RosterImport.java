@@ -0,0 +1,350 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.metrics.Counter;
+import edu.farmingdale.library.metrics.LatencyHistogram;
+import edu.farmingdale.library.metrics.Metrics;
+import edu.farmingdale.library.persistence.CsvParser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Creates accounts for a whole semester roster at once. The roster is a CSV
+ * file whose header names the columns first name, last name, email and
+ * password, in any order. Rows are parsed as a stream and validated in
+ * parallel chunks with the sign-up rules, then taken in file order: an
+ * email that already has an account, or came earlier in the file, is a
+ * duplicate. New students are committed in batches on a few writer threads
+ * instead of one round trip each, each batch no larger than one commit of
+ * the student store, so a failed commit fails exactly its own rows and the
+ * students of every other commit are added. Each row that was not created
+ * is reported with its line and the reason.
+ *
+ * Command line: RosterImport roster.csv [report.csv]
+ */
+public class RosterImport {
+
+    public enum Outcome {
+        CREATED,
+        DUPLICATE,  // the email already has an account, or appears earlier in the roster
+        INVALID,    // the row breaks a sign-up rule or is malformed
+        FAILED      // the commit holding the row could not be saved
+    }
+
+    public record RowResult(long line, String email, Outcome outcome, String message) {}
+
+    public static final class Report {
+        private final EnumMap<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        private final List<RowResult> problems = new ArrayList<>();
+        private long elapsedMillis;
+
+        private synchronized void add(RowResult result) {
+            counts.merge(result.outcome(), 1, Integer::sum);
+            if (result.outcome() != Outcome.CREATED) {
+                problems.add(result);
+            }
+        }
+
+        private synchronized void created(int count) {
+            counts.merge(Outcome.CREATED, count, Integer::sum);
+        }
+
+        public synchronized int count(Outcome outcome) {
+            return counts.getOrDefault(outcome, 0);
+        }
+
+        // Every row that was not created, by line
+        public synchronized List<RowResult> getProblems() {
+            List<RowResult> sorted = new ArrayList<>(problems);
+            sorted.sort(Comparator.comparingLong(RowResult::line));
+            return sorted;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public void writeCsv(Path file) throws IOException {
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("line,email,outcome,message");
+                out.newLine();
+                for (RowResult r : getProblems()) {
+                    out.write(r.line() + "," + quote(r.email()) + "," + r.outcome() + "," + quote(r.message()));
+                    out.newLine();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return count(Outcome.CREATED) + " created, " + count(Outcome.DUPLICATE) + " duplicates, "
+                    + count(Outcome.INVALID) + " invalid, " + count(Outcome.FAILED) + " failed in " + elapsedMillis + " ms";
+        }
+
+        private static String quote(String s) {
+            return (s == null) ? "" : "\"" + s.replace("\"", "\"\"") + "\"";
+        }
+    }
+
+    // A parsed row; error says why validation rejected it, or is null
+    private record Candidate(long line, String email, String firstName, String lastName, String password, String error) {}
+
+    private record Batch(List<Candidate> rows, List<Student> students) {}
+
+    private static final int VALIDATE_CHUNK = 1024;
+    // Upper bound on a batch; the student store's commit size lowers it
+    private static final int COMMIT_BATCH = 500;
+
+    private static final LatencyHistogram COMMIT = Metrics.latency("students.import.commit");
+    private static final Counter IMPORTED = Metrics.counter("students.imported");
+
+    private static final List<String> COLUMNS = List.of("first name", "last name", "email", "password");
+
+    private final Library library;
+    private final int writerCount;
+    private final int batchSize;
+
+    public RosterImport(Library library) {
+        this(library, Integer.getInteger("library.importWriters", 4));
+    }
+
+    public RosterImport(Library library, int writerCount) {
+        this.library = library;
+        this.writerCount = writerCount;
+        this.batchSize = Math.max(1, Math.min(COMMIT_BATCH, library.studentCommitSize()));
+    }
+
+    public Report run(Reader roster) throws IOException {
+        long start = System.nanoTime();
+        Report report = new Report();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService validators = Executors.newFixedThreadPool(threads, daemon("roster-validate"));
+        ExecutorService writers = Executors.newFixedThreadPool(writerCount, daemon("roster-write"));
+        Run run = new Run(report, validators, writers, threads * 2);
+        try {
+            CsvParser.parse(roster, run::row,
+                    p -> report.add(new RowResult(p.line(), null, Outcome.INVALID, p.message())));
+            run.finish();
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            validators.shutdownNow();
+            writers.shutdownNow();
+        }
+        report.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return report;
+    }
+
+    // State of one import, fed rows in file order on the parser's calling thread
+    private final class Run {
+        private final Report report;
+        private final ExecutorService validators;
+        private final ExecutorService writers;
+        private final int maxInFlight;
+
+        private final ArrayDeque<Future<List<Candidate>>> validating = new ArrayDeque<>();
+        private final ArrayDeque<Future<?>> committing = new ArrayDeque<>();
+        private final HashSet<String> claimed = new HashSet<>();
+        private int[] columns;
+        private List<String[]> chunk = new ArrayList<>();
+        private List<Long> chunkLines = new ArrayList<>();
+        private Batch batch = new Batch(new ArrayList<>(), new ArrayList<>());
+
+        Run(Report report, ExecutorService validators, ExecutorService writers, int maxInFlight) {
+            this.report = report;
+            this.validators = validators;
+            this.writers = writers;
+            this.maxInFlight = maxInFlight;
+        }
+
+        void row(CsvParser.Row row) {
+            if (columns == null) {
+                columns = header(row.fields());
+                return;
+            }
+            chunk.add(row.fields());
+            chunkLines.add(row.line());
+            if (chunk.size() == VALIDATE_CHUNK) {
+                submitChunk();
+            }
+        }
+
+        void finish() throws IOException {
+            if (columns == null) {
+                throw new IOException("Roster is empty");
+            }
+            submitChunk();
+            while (!validating.isEmpty()) {
+                take(validating.poll());
+            }
+            commit();
+            while (!committing.isEmpty()) {
+                await(committing.poll());
+            }
+        }
+
+        private void submitChunk() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<String[]> rows = chunk;
+            List<Long> lines = chunkLines;
+            int[] cols = columns;
+            validating.add(validators.submit(() -> validate(rows, lines, cols)));
+            chunk = new ArrayList<>();
+            chunkLines = new ArrayList<>();
+            // Bounded, so a huge roster never sits in memory as validated rows
+            while (validating.size() > maxInFlight) {
+                take(validating.poll());
+            }
+        }
+
+        // Dedupes one validated chunk in file order and queues the new students for writing
+        private void take(Future<List<Candidate>> validated) {
+            for (Candidate c : getUnchecked(validated)) {
+                if (c.error() != null) {
+                    report.add(new RowResult(c.line(), c.email(), Outcome.INVALID, c.error()));
+                } else if (library.emailExists(c.email())) {
+                    report.add(new RowResult(c.line(), c.email(), Outcome.DUPLICATE, "email already registered"));
+                } else if (!claimed.add(c.email().toLowerCase(Locale.ROOT))) {
+                    report.add(new RowResult(c.line(), c.email(), Outcome.DUPLICATE, "email appears earlier in the roster"));
+                } else {
+                    // Created here rather than on the validator threads, so IDs follow the roster order
+                    batch.rows().add(c);
+                    batch.students().add(new Student(c.password(), c.email(), c.lastName(), c.firstName()));
+                    if (batch.students().size() == batchSize) {
+                        commit();
+                    }
+                }
+            }
+        }
+
+        private void commit() {
+            if (batch.students().isEmpty()) {
+                return;
+            }
+            Batch full = batch;
+            batch = new Batch(new ArrayList<>(), new ArrayList<>());
+            committing.add(writers.submit(() -> write(full)));
+            while (committing.size() > writerCount * 2) {
+                await(committing.poll());
+            }
+        }
+
+        private void write(Batch batch) {
+            long start = System.nanoTime();
+            try {
+                library.addStudentsNow(batch.students());
+                report.created(batch.students().size());
+                IMPORTED.add(batch.students().size());
+            } catch (Exception e) {
+                for (Candidate c : batch.rows()) {
+                    report.add(new RowResult(c.line(), c.email(), Outcome.FAILED, e.getMessage()));
+                }
+            } finally {
+                COMMIT.recordSince(start);
+            }
+        }
+    }
+
+    // Maps the required columns to their positions in the header row
+    private static int[] header(String[] fields) {
+        int[] columns = new int[COLUMNS.size()];
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < fields.length; i++) {
+            // "First Name", "first_name" and "firstname" all match
+            String name = fields[i].replaceAll("[^A-Za-z]", "").toLowerCase(Locale.ROOT);
+            for (int c = 0; c < COLUMNS.size(); c++) {
+                if (COLUMNS.get(c).replace(" ", "").equals(name)) {
+                    columns[c] = i;
+                }
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("Roster header has no " + COLUMNS.get(i) + " column");
+            }
+        }
+        return columns;
+    }
+
+    // Runs on a validator thread; only reads its own rows
+    private static List<Candidate> validate(List<String[]> rows, List<Long> lines, int[] columns) {
+        int needed = Arrays.stream(columns).max().getAsInt() + 1;
+        List<Candidate> out = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            String[] f = rows.get(i);
+            long line = lines.get(i);
+            if (f.length < needed) {
+                out.add(new Candidate(line, null, null, null, null, "expected " + needed + " columns but found " + f.length));
+                continue;
+            }
+            String first = f[columns[0]].trim();
+            String last = f[columns[1]].trim();
+            String email = f[columns[2]].trim();
+            String password = f[columns[3]];
+
+            String error = null;
+            if (!StudentValidator.isName(first) || !StudentValidator.isName(last)) {
+                error = "first and last name must be letters only";
+            } else if (!StudentValidator.isSchoolEmail(last, email)) {
+                error = "must be a personal farmingdale.edu email";
+            } else if (!StudentValidator.isStrongPassword(password)) {
+                error = "password must contain a symbol, number, uppercase, and lowercase";
+            }
+            out.add(new Candidate(line, email, first, last, password, error));
+        }
+        return out;
+    }
+
+    private static <T> T getUnchecked(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Roster import interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void await(Future<?> future) {
+        getUnchecked(future);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: RosterImport <roster.csv> [report.csv]");
+            return;
+        }
+        Library library = Library.getInstance();
+        Report report;
+        try (Reader in = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            report = new RosterImport(library).run(in);
+        }
+        System.out.println("✅ Roster imported: " + report + ".");
+        if (args.length > 1) {
+            report.writeCsv(Path.of(args[1]));
+            System.out.println("📄 Row report written to " + args[1]);
+        } else {
+            for (RowResult r : report.getProblems()) {
+                System.out.println("⚠️ Line " + r.line() + " (" + r.email() + "): " + r.outcome() + ", " + r.message());
+            }
+        }
+        library.shutdown();
+    }
+}
@@ -0,0 +1,283 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.metrics.LatencyHistogram;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over one text field (title or author) of the catalog.
+ * Words are kept in a sorted map for exact and prefix lookups, and every
+ * 3-character gram points at the copies containing it so substring queries
+ * only verify a small candidate set instead of scanning the whole catalog.
+ * A query shorter than a gram is answered from the grams that contain it,
+ * plus the few entries too short to have a gram, so no query scans every
+ * entry. Searches run concurrently under a read lock; additions take the
+ * write lock. A search on an interrupted thread stops scanning and throws
+ * CancellationException.
+ */
+public class SearchIndex {
+
+    private static final int GRAM = 3;
+
+    // Candidates checked between looks at the thread's interrupt flag
+    private static final int INTERRUPT_CHECK = 1024;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final HashMap<Integer, String> normalizedById = new HashMap<>();
+    private final TreeMap<String, IntList> tokens = new TreeMap<>();
+    private final HashMap<String, IntList> grams = new HashMap<>();
+    private final IntList shorterThanGram = new IntList();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LatencyHistogram searchLatency;
+
+    public SearchIndex(LatencyHistogram searchLatency) {
+        this.searchLatency = searchLatency;
+    }
+
+    public void add(int id, String text) {
+        String norm = normalize(text);
+        List<String> words = tokenize(norm);
+        Set<String> distinctGrams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= norm.length(); i++) {
+            distinctGrams.add(norm.substring(i, i + GRAM));
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (normalizedById.put(id, norm) != null) {
+                return; // already indexed
+            }
+            for (String token : words) {
+                tokens.computeIfAbsent(token, k -> new IntList()).add(id);
+            }
+            for (String gram : distinctGrams) {
+                grams.computeIfAbsent(gram, k -> new IntList()).add(id);
+            }
+            if (!norm.isEmpty() && norm.length() < GRAM) {
+                shorterThanGram.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return normalizedById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of every indexed entry containing the query, best match first:
+     * exact text, then text starting with the query, then a word starting with it,
+     * then any other substring match.
+     */
+    public int[] search(String query) {
+        return search(query, 0, null);
+    }
+
+    /**
+     * Like search(query), but while the index is scanned every batch of
+     * matches is also handed to onFound as soon as it is found, in index
+     * order rather than rank order, so a caller can show the first rows
+     * before a large scan finishes. The ranked ids are returned at the end.
+     * onFound may be null.
+     */
+    public int[] search(String query, int batchSize, Consumer<int[]> onFound) {
+        long start = System.nanoTime();
+        try {
+            return rankedSearch(query, new Batcher(batchSize, onFound));
+        } finally {
+            searchLatency.recordSince(start);
+        }
+    }
+
+    private int[] rankedSearch(String query, Batcher found) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return new int[0];
+        }
+
+        List<Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = collectHits(q, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+        found.flush();
+
+        hits.sort(Comparator.comparingInt(Hit::score).reversed()
+                .thenComparing(Hit::text)
+                .thenComparingInt(Hit::id));
+
+        int[] ids = new int[hits.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = hits.get(i).id();
+        }
+        return ids;
+    }
+
+    private List<Hit> collectHits(String q, Batcher found) {
+        List<Hit> hits = new ArrayList<>();
+        if (q.length() < GRAM) {
+            int[] ids = shortMatches(q);
+            for (int i = 0; i < ids.length; i++) {
+                checkInterrupted(i);
+                String text = normalizedById.get(ids[i]);
+                hits.add(new Hit(ids[i], text, score(text, q)));
+                found.add(ids[i]);
+            }
+        } else {
+            IntList candidates = rarestGram(q);
+            if (candidates == null) {
+                return hits;
+            }
+            for (int i = 0; i < candidates.size(); i++) {
+                checkInterrupted(i);
+                int id = candidates.get(i);
+                String text = normalizedById.get(id);
+                if (text.contains(q)) {
+                    hits.add(new Hit(id, text, score(text, q)));
+                    found.add(id);
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static void checkInterrupted(int scanned) {
+        if (scanned % INTERRUPT_CHECK == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("search interrupted");
+        }
+    }
+
+    // Ids whose text has a word starting with the prefix, in word order
+    public int[] searchPrefix(String prefix) {
+        long start = System.nanoTime();
+        try {
+            return prefixSearch(prefix);
+        } finally {
+            searchLatency.recordSince(start);
+        }
+    }
+
+    private int[] prefixSearch(String prefix) {
+        String p = normalize(prefix);
+        if (p.isEmpty()) {
+            return new int[0];
+        }
+
+        LinkedHashSet<Integer> ids = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            for (IntList postings : tokens.subMap(p, true, p + Character.MAX_VALUE, false).values()) {
+                for (int i = 0; i < postings.size(); i++) {
+                    ids.add(postings.get(i));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Ids containing a query shorter than a gram. An entry at least a gram
+     * long contains it exactly when one of its grams does, so the postings
+     * of the matching grams are the answer without checking any text; the
+     * distinct grams are far fewer than the entries. Entries shorter than a
+     * gram are checked directly.
+     */
+    private int[] shortMatches(String q) {
+        BitSet matched = new BitSet();
+        int scanned = 0;
+        for (Map.Entry<String, IntList> gram : grams.entrySet()) {
+            checkInterrupted(scanned++);
+            if (gram.getKey().contains(q)) {
+                IntList postings = gram.getValue();
+                for (int i = 0; i < postings.size(); i++) {
+                    matched.set(postings.get(i));
+                }
+            }
+        }
+        for (int i = 0; i < shorterThanGram.size(); i++) {
+            int id = shorterThanGram.get(i);
+            if (normalizedById.get(id).contains(q)) {
+                matched.set(id);
+            }
+        }
+        return matched.stream().toArray();
+    }
+
+    private IntList rarestGram(String q) {
+        IntList best = null;
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            IntList postings = grams.get(q.substring(i, i + GRAM));
+            if (postings == null) {
+                return null; // some gram never occurs, so nothing can match
+            }
+            if (best == null || postings.size() < best.size()) {
+                best = postings;
+            }
+        }
+        return best;
+    }
+
+    private static int score(String text, String q) {
+        if (text.equals(q)) return 3;
+        if (text.startsWith(q)) return 2;
+        int at = text.indexOf(q);
+        return (at > 0 && !Character.isLetterOrDigit(text.charAt(at - 1))) ? 1 : 0;
+    }
+
+    private static List<String> tokenize(String norm) {
+        List<String> out = new ArrayList<>();
+        for (String t : NON_WORD.split(norm)) {
+            if (!t.isEmpty()) out.add(t);
+        }
+        return out;
+    }
+
+    private static String normalize(String text) {
+        return (text == null) ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Hit(int id, String text, int score) {}
+
+    // Collects ids found during a scan and passes them on a batch at a time
+    private static final class Batcher {
+        private final int batchSize;
+        private final Consumer<int[]> onFound;
+        private final IntList pending = new IntList();
+
+        Batcher(int batchSize, Consumer<int[]> onFound) {
+            this.batchSize = Math.max(1, batchSize);
+            this.onFound = onFound;
+        }
+
+        void add(int id) {
+            if (onFound == null) {
+                return;
+            }
+            pending.add(id);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.size() > 0) {
+                onFound.accept(pending.toArray());
+                pending.clear();
+            }
+        }
+    }
+}
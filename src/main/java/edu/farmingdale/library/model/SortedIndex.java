@@ -0,0 +1,50 @@
+package edu.farmingdale.library.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Keeps items ordered by one sort key as they are added, so sorted listings
+ * never re-sort. Backed by a concurrent skip list; pages are read with the
+ * last item of the previous page as the cursor. The comparator must be a
+ * total order (break ties on a unique key), and an item's sort key must not
+ * change while it is in the index; remove it first and add it back after.
+ */
+final class SortedIndex<T> {
+
+    private final ConcurrentSkipListSet<T> items;
+
+    SortedIndex(Comparator<? super T> order) {
+        this.items = new ConcurrentSkipListSet<>(order);
+    }
+
+    void add(T item) {
+        items.add(item);
+    }
+
+    void remove(T item) {
+        items.remove(item);
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    List<T> toList() {
+        return new ArrayList<>(items);
+    }
+
+    // Up to limit items after the cursor; a null cursor starts from the beginning
+    List<T> page(T after, int limit) {
+        NavigableSet<T> tail = (after == null) ? items : items.tailSet(after, false);
+        List<T> page = new ArrayList<>(Math.min(limit, 256));
+        for (T item : tail) {
+            if (page.size() == limit) break;
+            page.add(item);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,101 @@
+package edu.farmingdale.library.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Stores each distinct string once, as UTF-8 bytes packed into one array,
+ * and hands out int references to it. Lookups go through an open-addressing
+ * table of references, so the pool holds no String or Integer objects;
+ * get() decodes a new String each time. Not thread-safe.
+ */
+final class StringPool {
+
+    private static final int EMPTY = -1;
+
+    private byte[] bytes = new byte[1024];
+    private int used;
+    private int[] offsets = new int[65]; // string i spans offsets[i] until offsets[i + 1]
+    private int size;
+    private int[] table = emptyTable(128);
+
+    int intern(String s) {
+        byte[] encoded = encode(s);
+        int slot = slotOf(encoded);
+        if (table[slot] != EMPTY) {
+            return table[slot];
+        }
+
+        if (used + encoded.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + encoded.length));
+        }
+        System.arraycopy(encoded, 0, bytes, used, encoded.length);
+        used += encoded.length;
+        if (size + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[++size] = used;
+        table[slot] = size - 1;
+
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return size - 1;
+    }
+
+    // The reference of a string already in the pool, or -1
+    int find(String s) {
+        return table[slotOf(encode(s))];
+    }
+
+    String get(int ref) {
+        return new String(bytes, offsets[ref], offsets[ref + 1] - offsets[ref], StandardCharsets.UTF_8);
+    }
+
+    int size() {
+        return size;
+    }
+
+    // The slot holding the string, or the empty slot where it would go
+    private int slotOf(byte[] encoded) {
+        int mask = table.length - 1;
+        for (int slot = hash(encoded, 0, encoded.length) & mask; ; slot = (slot + 1) & mask) {
+            int ref = table[slot];
+            if (ref == EMPTY || Arrays.equals(bytes, offsets[ref], offsets[ref + 1], encoded, 0, encoded.length)) {
+                return slot;
+            }
+        }
+    }
+
+    private void rehash(int slots) {
+        table = emptyTable(slots);
+        int mask = slots - 1;
+        for (int ref = 0; ref < size; ref++) {
+            int slot = hash(bytes, offsets[ref], offsets[ref + 1]) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = ref;
+        }
+    }
+
+    private static int hash(byte[] b, int from, int to) {
+        int h = 1;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + b[i];
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] emptyTable(int slots) {
+        int[] t = new int[slots];
+        Arrays.fill(t, EMPTY);
+        return t;
+    }
+
+    // Null is stored as the empty string
+    private static byte[] encode(String s) {
+        return (s == null) ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -15,18 +15,68 @@ public class Student {
     // Store ISBNs, not Book objects → Firebase-friendly
     private List<String> currentBooks;
 
+    // IDs of the exact copies on loan; records saved before copies were tracked only have ISBNs
+    private List<Integer> currentCopies;
+
     // REQUIRED by Firebase: public no-arg constructor
     public Student() {
         this.currentBooks = new ArrayList<>();
+        this.currentCopies = new ArrayList<>();
     }
 
     public Student(String password, String email, String lastName, String firstName) {
-        this.ID = nextID++;
+        synchronized (Student.class) {
+            this.ID = nextID++;
+        }
         this.password = password;
         this.email = email;
         this.lastName = lastName;
         this.firstName = firstName;
         this.currentBooks = new ArrayList<>();
+        this.currentCopies = new ArrayList<>();
+    }
+
+    // Restores a stored student with its original ID
+    public Student(int ID, String password, String email, String lastName, String firstName, List<String> currentBooks) {
+        this(ID, password, email, lastName, firstName, currentBooks, List.of());
+    }
+
+    public Student(int ID, String password, String email, String lastName, String firstName,
+                   List<String> currentBooks, List<Integer> currentCopies) {
+        this.ID = ID;
+        this.password = password;
+        this.email = email;
+        this.lastName = lastName;
+        this.firstName = firstName;
+        this.currentBooks = new ArrayList<>(currentBooks);
+        this.currentCopies = new ArrayList<>(currentCopies);
+        // Stored students may be decoded on several loader threads at once
+        synchronized (Student.class) {
+            nextID = Math.max(nextID, ID + 1);
+        }
+    }
+
+    // Detached copy used when handing a student to a background writer
+    public Student(Student other) {
+        synchronized (other) {
+            this.currentBooks = new ArrayList<>(other.currentBooks);
+            this.currentCopies = new ArrayList<>(other.currentCopies);
+        }
+        this.ID = other.ID;
+        this.password = other.password;
+        this.email = other.email;
+        this.lastName = other.lastName;
+        this.firstName = other.firstName;
+    }
+
+    // Takes on a newer copy of the same account, keeping this object so existing references stay valid
+    synchronized void copyFrom(Student other) {
+        this.ID = other.ID;
+        this.password = other.password;
+        this.lastName = other.lastName;
+        this.firstName = other.firstName;
+        this.currentBooks = (other.currentBooks == null) ? new ArrayList<>() : new ArrayList<>(other.currentBooks);
+        this.currentCopies = (other.currentCopies == null) ? new ArrayList<>() : new ArrayList<>(other.currentCopies);
     }
 
     public int getID() { return ID; }
@@ -39,18 +89,33 @@ public class Student {
     public List<String> getCurrentBooks() { return currentBooks; }
     public void setCurrentBooks(List<String> currentBooks) { this.currentBooks = currentBooks; }
 
-    // Add a book by ISBN
-    public void addBook(String isbn) {
-        if (!currentBooks.contains(isbn)) {
+    public List<Integer> getCurrentCopies() { return currentCopies; }
+    public void setCurrentCopies(List<Integer> currentCopies) { this.currentCopies = currentCopies; }
+
+    // Records a loan of one copy; the ISBN list keeps one entry per copy held
+    public synchronized void addLoan(int copyId, String isbn) {
+        if (!currentCopies.contains(copyId)) {
+            currentCopies.add(copyId);
             currentBooks.add(isbn);
         }
     }
 
-    // Remove a book by ISBN
-    public void removeBook(String isbn) {
+    public synchronized void removeLoan(int copyId, String isbn) {
+        currentCopies.remove(Integer.valueOf(copyId));
         currentBooks.remove(isbn);
     }
 
+    // Turns one ISBN-only loan on the record into a loan of the given copy; the number of loans stays the same
+    public synchronized void assignCopy(int copyId, String isbn) {
+        currentBooks.remove(isbn);
+        addLoan(copyId, isbn);
+    }
+
+    // Forgets a copy ID that does not match the record's ISBNs; its ISBN entry stays, to be covered by another copy
+    public synchronized void dropCopy(int copyId) {
+        currentCopies.remove(Integer.valueOf(copyId));
+    }
+
     public boolean isPassword(String str) {
         return str.equals(password);
     }
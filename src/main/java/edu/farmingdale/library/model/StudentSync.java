@@ -0,0 +1,135 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.persistence.StudentChange;
+import edu.farmingdale.library.persistence.StudentRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the in-memory students in step with saves made at other desks.
+ * The repository streams changed student records, which Library applies one
+ * student at a time. The read time of each applied batch is the checkpoint
+ * and is kept in a small file; a restart resumes from the older of that
+ * checkpoint and the time the local student data was loaded, minus a margin
+ * for clock skew. Replaying a change is harmless, so the margin costs only a
+ * few extra reads. If the stream fails it is reopened from the checkpoint.
+ */
+public class StudentSync implements AutoCloseable {
+
+    private static final long REPLAY_MARGIN_MS = 5 * 60_000;
+    private static final long RETRY_DELAY_MS = 30_000;
+
+    private final Library library;
+    private final StudentRepository repository;
+    private final Path checkpointFile;
+    private final ScheduledExecutorService retries;
+
+    private final AtomicLong appliedCount = new AtomicLong();
+    private volatile long checkpoint;
+    private AutoCloseable stream; // guarded by this
+    private boolean closed;       // guarded by this
+
+    StudentSync(Library library, StudentRepository repository, Path checkpointFile) {
+        this.library = library;
+        this.repository = repository;
+        this.checkpointFile = checkpointFile;
+        this.retries = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "student-sync");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Starts streaming changes made after the local data was loaded; returns false if the store cannot be watched
+    public synchronized boolean start(long studentsAsOf) {
+        long saved = readCheckpoint();
+        checkpoint = (saved > 0) ? Math.min(saved, studentsAsOf) : studentsAsOf;
+        return open();
+    }
+
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    public long getAppliedCount() {
+        return appliedCount.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        retries.shutdownNow();
+        closeStream();
+    }
+
+    private synchronized boolean open() {
+        if (closed) {
+            return false;
+        }
+        try {
+            stream = repository.watch(Math.max(0, checkpoint - REPLAY_MARGIN_MS), this::apply, this::failed);
+        } catch (RuntimeException e) {
+            failed(e);
+            return true;
+        }
+        return stream != null;
+    }
+
+    // Runs on the repository's listener thread
+    private void apply(List<StudentChange> changes, long readTimeMillis) {
+        library.applyStudentChanges(changes);
+        appliedCount.addAndGet(changes.size());
+        if (readTimeMillis > checkpoint) {
+            checkpoint = readTimeMillis;
+            writeCheckpoint(readTimeMillis);
+        }
+    }
+
+    private void failed(Exception e) {
+        System.out.println("⚠️ Student sync stopped, retrying in " + RETRY_DELAY_MS / 1000 + " s: " + e.getMessage());
+        synchronized (this) {
+            closeStream();
+            if (!closed) {
+                retries.schedule(this::open, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void closeStream() {
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (Exception ignored) {
+            // already stopped
+        }
+        stream = null;
+    }
+
+    private long readCheckpoint() {
+        try {
+            return Long.parseLong(Files.readString(checkpointFile, StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void writeCheckpoint(long millis) {
+        try {
+            Files.createDirectories(checkpointFile.toAbsolutePath().getParent());
+            Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            Files.writeString(tmp, Long.toString(millis), StandardCharsets.UTF_8);
+            Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("⚠️ Could not save sync checkpoint: " + e.getMessage());
+        }
+    }
+}
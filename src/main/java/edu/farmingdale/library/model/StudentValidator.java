@@ -0,0 +1,49 @@
+package edu.farmingdale.library.model;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Account rules shared by the sign-up screen and roster imports. The
+ * patterns are compiled once; each check makes its own Matcher, so these
+ * are safe to call from many threads at once.
+ */
+public final class StudentValidator {
+
+    private static final Pattern FULL_NAME = Pattern.compile("[A-Za-z]+\\s+[A-Za-z]+");
+    private static final Pattern NAME = Pattern.compile("[A-Za-z]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // A symbol, a digit, an uppercase and a lowercase letter, at least 8 characters
+    private static final Pattern STRONG_PASSWORD =
+            Pattern.compile("(?=.*[A-Z])(?=.*[a-z])(?=.*\\d)(?=.*[^a-zA-Z0-9]).{8,}");
+
+    private static final String EMAIL_DOMAIN = "@farmingdale.edu";
+
+    private StudentValidator() {}
+
+    // "First Last", letters only
+    public static boolean isFullName(String fullName) {
+        return fullName != null && FULL_NAME.matcher(fullName.trim()).matches();
+    }
+
+    public static boolean isName(String name) {
+        return name != null && NAME.matcher(name.trim()).matches();
+    }
+
+    // First and last name of a full name that passed isFullName
+    public static String[] splitFullName(String fullName) {
+        return WHITESPACE.split(fullName.trim());
+    }
+
+    public static boolean isStrongPassword(String password) {
+        return password != null && STRONG_PASSWORD.matcher(password).matches();
+    }
+
+    // Personal school addresses start with the student's last initial
+    public static boolean isSchoolEmail(String lastName, String email) {
+        if (lastName == null || email == null || lastName.isBlank()) return false;
+        email = email.trim().toLowerCase(Locale.ROOT);
+        char initial = Character.toLowerCase(lastName.trim().charAt(0));
+        return email.length() > EMAIL_DOMAIN.length() && email.charAt(0) == initial && email.endsWith(EMAIL_DOMAIN);
+    }
+}
@@ -0,0 +1,218 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.metrics.Counter;
+import edu.farmingdale.library.metrics.LatencyHistogram;
+import edu.farmingdale.library.metrics.Metrics;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Write-behind queue for student records. Updates are coalesced per student
+ * (only the latest state is written) and flushed in batches from a background
+ * thread, either when enough students are pending or when the flush interval
+ * passes. A failed batch is put back and retried with exponential backoff.
+ * Each queued state carries a number from the caller (the loan journal's
+ * sequence), so listeners can tell which local changes a successful write
+ * included.
+ */
+public class StudentWriteQueue {
+
+    @FunctionalInterface
+    public interface BatchWriter {
+        void write(List<Student> batch) throws Exception;
+    }
+
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    // A student's state as of the caller's sequence number
+    private record Pending(Student student, long asOf) {}
+
+    private static final LatencyHistogram WRITE_LATENCY = Metrics.latency("students.write");
+    private static final Counter WRITTEN = Metrics.counter("students.written");
+    private static final Counter FAILED_FLUSHES = Metrics.counter("students.write.failed");
+
+    private final BatchWriter writer;
+    private final int maxBatchSize;
+    private final long flushIntervalMs;
+
+    private final LinkedHashMap<String, Pending> pending = new LinkedHashMap<>();
+    private final HashSet<String> inFlight = new HashSet<>(); // guarded by pending
+    private final ScheduledExecutorService executor;
+    private final List<Consumer<Exception>> failureListeners = new CopyOnWriteArrayList<>();
+    private final List<ObjLongConsumer<Student>> writtenListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private volatile Exception lastFailure;
+    private int consecutiveFailures;
+    private long nextAttemptAt;
+
+    public StudentWriteQueue(BatchWriter writer, int maxBatchSize, long flushIntervalMs) {
+        this.writer = writer;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "student-write-queue");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::flushDue, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Queues the student's current state, as of the given sequence number; never blocks on the network
+    public void enqueue(Student student, long asOf) {
+        Student snapshot = new Student(student);
+        boolean full;
+        synchronized (pending) {
+            pending.put(key(student), new Pending(snapshot, asOf));
+            full = pending.size() >= maxBatchSize;
+        }
+        if (full) {
+            executor.execute(this::flushDue);
+        }
+    }
+
+    public int getQueueDepth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    // True while a local update for this student is queued or being written
+    public boolean isPending(String email) {
+        String key = email.toLowerCase(Locale.ROOT);
+        synchronized (pending) {
+            return pending.containsKey(key) || inFlight.contains(key);
+        }
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    public void addFailureListener(Consumer<Exception> listener) {
+        failureListeners.add(listener);
+    }
+
+    // Told, after each successful write, which student was saved and the number their state was queued with
+    public void addWrittenListener(ObjLongConsumer<Student> listener) {
+        writtenListeners.add(listener);
+    }
+
+    // Writes everything pending before returning, ignoring any backoff; returns false if a batch failed
+    public boolean flush() {
+        try {
+            return executor.submit(() -> {
+                while (getQueueDepth() > 0) {
+                    if (!writeBatch()) return false;
+                }
+                return true;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        flush();
+        executor.shutdown();
+    }
+
+    // Runs on the queue thread
+    private void flushDue() {
+        if (System.currentTimeMillis() < nextAttemptAt) {
+            return;
+        }
+        while (getQueueDepth() > 0) {
+            if (!writeBatch()) return;
+        }
+    }
+
+    // Runs on the queue thread
+    private boolean writeBatch() {
+        List<Pending> taken = new ArrayList<>();
+        List<Student> batch = new ArrayList<>();
+        synchronized (pending) {
+            Iterator<Pending> it = pending.values().iterator();
+            while (it.hasNext() && batch.size() < maxBatchSize) {
+                Pending p = it.next();
+                taken.add(p);
+                batch.add(p.student());
+                inFlight.add(key(p.student()));
+                it.remove();
+            }
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        try {
+            writer.write(batch);
+            for (Pending p : taken) {
+                for (ObjLongConsumer<Student> listener : writtenListeners) {
+                    listener.accept(p.student(), p.asOf());
+                }
+            }
+            WRITE_LATENCY.recordSince(start);
+            WRITTEN.add(batch.size());
+            writtenCount.addAndGet(batch.size());
+            consecutiveFailures = 0;
+            nextAttemptAt = 0;
+            clearInFlight(batch);
+            return true;
+        } catch (Exception e) {
+            synchronized (pending) {
+                // Newer updates queued while this batch was in flight take precedence
+                for (Pending p : taken) {
+                    pending.putIfAbsent(key(p.student()), p);
+                }
+            }
+            clearInFlight(batch);
+            WRITE_LATENCY.recordSince(start);
+            FAILED_FLUSHES.increment();
+            consecutiveFailures++;
+            nextAttemptAt = System.currentTimeMillis() + backoffMs();
+            failedFlushCount.incrementAndGet();
+            lastFailure = e;
+            System.out.println("❌ Failed to write " + batch.size() + " students, retrying in "
+                    + backoffMs() + " ms: " + e.getMessage());
+            for (Consumer<Exception> listener : failureListeners) {
+                listener.accept(e);
+            }
+            return false;
+        }
+    }
+
+    private void clearInFlight(List<Student> batch) {
+        synchronized (pending) {
+            for (Student s : batch) {
+                inFlight.remove(key(s));
+            }
+        }
+    }
+
+    private long backoffMs() {
+        long delay = flushIntervalMs << Math.min(consecutiveFailures, 16);
+        return Math.min(delay, MAX_BACKOFF_MS);
+    }
+
+    private static String key(Student s) {
+        return s.getEmail().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,63 @@
+package edu.farmingdale.library.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel: each item goes into the slot of the tick its deadline
+ * falls in, so scheduling is O(1) however many items are waiting, and each
+ * tick only looks at one slot. Deadlines further out than one turn of the
+ * wheel stay in their slot until the turn they are due. Items are never
+ * removed early; whoever handles a fired item checks it is still current.
+ */
+final class TimerWheel<T> {
+
+    private record Entry<T>(T item, long dueTick) {}
+
+    private final long tickMillis;
+    private final List<List<Entry<T>>> slots;
+    private long currentTick;
+    private int size;
+
+    TimerWheel(long tickMillis, int slotCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    synchronized void schedule(T item, long deadlineMillis) {
+        // Rounded up, and never into a tick that has already been handled
+        long due = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        slots.get((int) (due % slots.size())).add(new Entry<>(item, due));
+        size++;
+    }
+
+    // Items whose deadline has passed by now, in no particular order
+    synchronized List<T> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<T> fired = new ArrayList<>();
+        // After a long pause one pass over every slot covers all the ticks that were missed
+        long last = Math.min(nowTick, currentTick + slots.size());
+        for (long tick = currentTick + 1; tick <= last; tick++) {
+            Iterator<Entry<T>> it = slots.get((int) (tick % slots.size())).iterator();
+            while (it.hasNext()) {
+                Entry<T> e = it.next();
+                if (e.dueTick() <= nowTick) {
+                    fired.add(e.item());
+                    it.remove();
+                    size--;
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, nowTick);
+        return fired;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
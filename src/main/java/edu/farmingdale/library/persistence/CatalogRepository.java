@@ -0,0 +1,16 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Book;
+
+import java.util.List;
+
+// Source of the book copies that make up the catalog
+public interface CatalogRepository {
+
+    List<Book> loadBooks() throws Exception;
+
+    // Changes whenever the catalog contents may have changed; 0 means unknown
+    default long fingerprint() {
+        return 0;
+    }
+}
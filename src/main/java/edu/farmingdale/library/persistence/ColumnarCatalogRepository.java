@@ -0,0 +1,36 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Book;
+import edu.farmingdale.library.model.ColumnarCatalog;
+
+import java.util.List;
+
+/**
+ * Loads another catalog through a ColumnarCatalog, so the copies of a title
+ * share one title, author and ISBN string instead of each holding the copy
+ * the parser made. The columnar store is only kept for the load.
+ * Chosen with -Dlibrary.catalog=columnar.
+ */
+public class ColumnarCatalogRepository implements CatalogRepository {
+
+    private final CatalogRepository source;
+
+    public ColumnarCatalogRepository(CatalogRepository source) {
+        this.source = source;
+    }
+
+    public CatalogRepository getSource() {
+        return source;
+    }
+
+    @Override
+    public List<Book> loadBooks() throws Exception {
+        List<Book> parsed = source.loadBooks();
+        return ColumnarCatalog.of(parsed).toBooks();
+    }
+
+    @Override
+    public long fingerprint() {
+        return source.fingerprint();
+    }
+}
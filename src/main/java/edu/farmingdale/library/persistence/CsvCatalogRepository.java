@@ -0,0 +1,93 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Book;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// A catalog stored as CSV (ISBN,Title,Author), either bundled as a resource or exported to a file
+public class CsvCatalogRepository implements CatalogRepository {
+
+    public static final String DEFAULT_PATH = "/edu/farmingdale/library/books.csv";
+
+    private final String resourcePath;
+    private final Path file;
+    private List<CsvParser.Problem> problems = List.of();
+
+    public CsvCatalogRepository() {
+        this(DEFAULT_PATH);
+    }
+
+    public CsvCatalogRepository(String resourcePath) {
+        this.resourcePath = resourcePath;
+        this.file = null;
+    }
+
+    public CsvCatalogRepository(Path file) {
+        this.resourcePath = null;
+        this.file = file;
+    }
+
+    @Override
+    public List<Book> loadBooks() throws IOException {
+        List<Book> books = new ArrayList<>();
+        List<CsvParser.Problem> found = new ArrayList<>();
+
+        try (Reader in = open()) {
+            CsvParser.parse(in, row -> {
+                if (row.line() == 1) return; // Skip header
+
+                String[] f = row.fields();
+                if (f.length != 3) {
+                    found.add(new CsvParser.Problem(row.line(), "expected 3 columns but found " + f.length));
+                    return;
+                }
+
+                // Books are created here, in file order, so copy IDs stay the same between runs
+                books.add(new Book(f[0].trim(), f[1].trim(), f[2].trim(), true, null));
+            }, found::add);
+        }
+
+        problems = found;
+        return books;
+    }
+
+    // Size and modification time of the source, which is enough to notice a new export
+    @Override
+    public long fingerprint() {
+        try {
+            if (file != null) {
+                return Files.size(file) * 31 + Files.getLastModifiedTime(file).toMillis();
+            }
+            URLConnection connection = Objects.requireNonNull(getClass().getResource(resourcePath)).openConnection();
+            return connection.getContentLengthLong() * 31 + connection.getLastModified();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    // Malformed rows skipped by the last load, with their line numbers
+    public List<CsvParser.Problem> getProblems() {
+        return problems;
+    }
+
+    private Reader open() throws IOException {
+        if (file != null) {
+            return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+        InputStream stream = getClass().getResourceAsStream(resourcePath);
+        if (stream == null) {
+            throw new IOException("Catalog resource not found: " + resourcePath);
+        }
+        return new InputStreamReader(stream, StandardCharsets.UTF_8);
+    }
+}
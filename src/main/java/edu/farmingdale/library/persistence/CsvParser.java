@@ -0,0 +1,243 @@
+package edu.farmingdale.library.persistence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Streaming RFC 4180 parser: quoted fields may contain commas, line breaks
+ * and doubled quotes. Input is read in chunks cut at record boundaries, and
+ * chunks are parsed on a thread pool while rows are still delivered in file
+ * order. Only a fixed number of chunks are held at once, so memory stays
+ * bounded however large the file is. Malformed records are reported with
+ * their line number and skipped.
+ */
+public final class CsvParser {
+
+    public record Row(long line, String[] fields) {}
+
+    public record Problem(long line, String message) {}
+
+    private record Chunk(List<Row> rows, List<Problem> problems) {}
+
+    private static final int CHUNK_CHARS = 1 << 20;
+
+    private CsvParser() {}
+
+    public static void parse(Reader in, Consumer<Row> rows, Consumer<Problem> problems) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "csv-parser");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            parse(in, CHUNK_CHARS, pool, threads * 2, rows, problems);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static void parse(Reader in, int chunkChars, ExecutorService pool, int maxInFlight,
+                      Consumer<Row> rows, Consumer<Problem> problems) throws IOException {
+        ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+        StringBuilder pending = new StringBuilder();
+        char[] buffer = new char[chunkChars];
+        Splitter splitter = new Splitter();
+        int scanned = 0; // chars of pending already scanned for quotes
+        int cut = -1;    // end of the last complete record in pending
+        long nextLine = 1;
+
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            pending.append(buffer, 0, read);
+
+            // A line break inside a quoted field is never taken as a record end
+            for (; scanned < pending.length(); scanned++) {
+                if (splitter.endsRecord(pending.charAt(scanned))) {
+                    cut = scanned + 1;
+                }
+            }
+
+            if (pending.length() >= chunkChars && cut > 0) {
+                String text = pending.substring(0, cut);
+                pending.delete(0, cut);
+                scanned -= cut;
+                cut = -1;
+
+                long firstLine = nextLine;
+                nextLine += countLineBreaks(text);
+                inFlight.add(pool.submit(() -> parseChunk(text, firstLine)));
+
+                while (inFlight.size() >= maxInFlight) {
+                    deliver(inFlight.poll(), rows, problems);
+                }
+            }
+        }
+
+        if (pending.length() > 0) {
+            String text = pending.toString();
+            long firstLine = nextLine;
+            inFlight.add(pool.submit(() -> parseChunk(text, firstLine)));
+        }
+        while (!inFlight.isEmpty()) {
+            deliver(inFlight.poll(), rows, problems);
+        }
+    }
+
+    /**
+     * Follows quoting the way parseChunk does, one char at a time: a quote
+     * only opens a field at its start, and a stray quote elsewhere is left
+     * for parseChunk to report rather than taken as the start of a field
+     * that swallows the following lines.
+     */
+    private static final class Splitter {
+        private boolean inQuotes;
+        private boolean quoted;      // current field was quoted
+        private boolean fieldBlank = true;
+        private boolean afterClosingQuote;
+
+        // True if c is a \n that ends a record
+        boolean endsRecord(char c) {
+            boolean doubled = afterClosingQuote;
+            afterClosingQuote = false;
+            if (inQuotes) {
+                if (c == '"') {
+                    inQuotes = false;
+                    afterClosingQuote = true;
+                }
+            } else if (c == '"') {
+                if (doubled) {
+                    inQuotes = true; // "" inside a quoted field
+                } else if (!quoted && fieldBlank) {
+                    inQuotes = true;
+                    quoted = true;
+                }
+            } else if (c == ',' || c == '\n' || c == '\r') {
+                quoted = false;
+                fieldBlank = true;
+                return c == '\n';
+            } else if (!Character.isWhitespace(c)) {
+                fieldBlank = false;
+            }
+            return false;
+        }
+    }
+
+    private static void deliver(Future<Chunk> future, Consumer<Row> rows, Consumer<Problem> problems) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing CSV", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to parse CSV", e.getCause());
+        }
+        chunk.problems().forEach(problems);
+        chunk.rows().forEach(rows);
+    }
+
+    // Parses a run of complete records; firstLine is the 1-based line the text starts on
+    private static Chunk parseChunk(String text, long firstLine) {
+        List<Row> rows = new ArrayList<>();
+        List<Problem> problems = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+
+        long line = firstLine;
+        long recordLine = firstLine;
+        boolean inQuotes = false;
+        boolean quoted = false;   // current field was quoted
+        String error = null;
+
+        int n = text.length();
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < n && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    if (isLineBreak(text, i)) line++;
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                if (!quoted && isBlank(field)) {
+                    field.setLength(0);
+                    inQuotes = true;
+                    quoted = true;
+                } else if (error == null) {
+                    error = "unexpected quote in field " + (fields.size() + 1);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < n && text.charAt(i + 1) == '\n') i++;
+
+                fields.add(field.toString());
+                emit(fields, recordLine, error, rows, problems);
+                fields.clear();
+                field.setLength(0);
+                quoted = false;
+                error = null;
+                line++;
+                recordLine = line;
+            } else if (quoted) {
+                if (!Character.isWhitespace(c) && error == null) {
+                    error = "text after closing quote in field " + (fields.size() + 1);
+                }
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (inQuotes) {
+            problems.add(new Problem(recordLine, "unterminated quoted field"));
+        } else if (field.length() > 0 || !fields.isEmpty() || quoted) {
+            fields.add(field.toString());
+            emit(fields, recordLine, error, rows, problems);
+        }
+        return new Chunk(rows, problems);
+    }
+
+    private static void emit(List<String> fields, long line, String error, List<Row> rows, List<Problem> problems) {
+        if (error != null) {
+            problems.add(new Problem(line, error));
+        } else if (fields.size() > 1 || !fields.get(0).isEmpty()) {
+            rows.add(new Row(line, fields.toArray(new String[0])));
+        }
+    }
+
+    private static boolean isBlank(StringBuilder field) {
+        for (int i = 0; i < field.length(); i++) {
+            if (!Character.isWhitespace(field.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // A line break is \n, or a \r that is not the first half of \r\n
+    private static boolean isLineBreak(String text, int i) {
+        char c = text.charAt(i);
+        return c == '\n' || (c == '\r' && (i + 1 >= text.length() || text.charAt(i + 1) != '\n'));
+    }
+
+    private static long countLineBreaks(String text) {
+        long count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (isLineBreak(text, i)) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,131 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Hold;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Hold store made of a snapshot file and an append-only log, like
+ * FileStudentRepository. Every status change appends the hold's full record
+ * and fsyncs; loading replays the log over the snapshot and keeps the last
+ * record per hold. Compaction writes only the holds still active, so holds
+ * that have ended drop out of the files. A torn last record is cut off when
+ * the store is opened.
+ */
+public class FileHoldRepository implements HoldRepository {
+
+    private static final int COMPACT_AFTER_RECORDS = 10_000;
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private int logRecords;
+
+    public FileHoldRepository(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve("holds.snapshot");
+        this.logFile = directory.resolve("holds.log");
+        FileStudentRepository.truncateTornTail(logFile);
+    }
+
+    @Override
+    public synchronized List<Hold> loadActive() throws IOException {
+        TreeMap<Long, Hold> holds = new TreeMap<>();
+        readInto(snapshotFile, holds);
+        logRecords = readInto(logFile, holds);
+        holds.values().removeIf(h -> !h.isActive());
+
+        if (logRecords > COMPACT_AFTER_RECORDS) {
+            compact(holds.values());
+        }
+        return new ArrayList<>(holds.values());
+    }
+
+    @Override
+    public synchronized void saveAll(List<Hold> holds) throws IOException {
+        StringBuilder records = new StringBuilder();
+        for (Hold h : holds) {
+            records.append(encode(h)).append('\n');
+        }
+
+        try (FileChannel log = FileChannel.open(logFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long end = log.size();
+            try {
+                log.write(StandardCharsets.UTF_8.encode(records.toString()));
+                log.force(false);
+            } catch (IOException e) {
+                log.truncate(end);
+                throw e;
+            }
+        }
+
+        logRecords += holds.size();
+        if (logRecords > COMPACT_AFTER_RECORDS) {
+            TreeMap<Long, Hold> current = new TreeMap<>();
+            readInto(snapshotFile, current);
+            readInto(logFile, current);
+            current.values().removeIf(h -> !h.isActive());
+            compact(current.values());
+        }
+    }
+
+    // Writes the active holds to a new snapshot, swaps it in atomically, then empties the log
+    private void compact(Collection<Hold> holds) throws IOException {
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Hold h : holds) {
+                out.write(encode(h));
+                out.newLine();
+            }
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(logFile);
+        logRecords = 0;
+    }
+
+    // Returns the number of records read; a torn last line from a crash is ignored
+    private static int readInto(Path file, Map<Long, Hold> holds) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        int count = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            Hold h = decode(line);
+            if (h != null) {
+                holds.put(h.getId(), h);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ====== RECORD FORMAT ======
+    // hold ID \t email \t ISBN \t placed at (epoch ms) \t status \t copy ID \t ready until (epoch ms)
+
+    static String encode(Hold h) {
+        return h.getId() + "\t" + FileStudentRepository.escape(h.getEmail()) + "\t"
+                + FileStudentRepository.escape(h.getIsbn()) + "\t" + h.getPlacedAt() + "\t"
+                + h.getStatus() + "\t" + h.getCopyId() + "\t" + h.getReadyUntil();
+    }
+
+    static Hold decode(String line) {
+        String[] f = line.split("\t", -1);
+        if (f.length != 7) {
+            return null;
+        }
+
+        try {
+            return new Hold(Long.parseLong(f[0]), FileStudentRepository.unescape(f[1]),
+                    FileStudentRepository.unescape(f[2]), Long.parseLong(f[3]), Hold.Status.valueOf(f[4]),
+                    Integer.parseInt(f[5]), Long.parseLong(f[6]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Student;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded student store made of a snapshot file and an append-only log.
+ * Saves append one line per student to the log and fsync it; loading reads
+ * the snapshot and replays the log on top. Once the log grows past a limit
+ * it is folded into a fresh snapshot and truncated. A line torn by a crash
+ * is cut off when the store is opened, so the next append starts a line of
+ * its own.
+ */
+public class FileStudentRepository implements StudentRepository {
+
+    private static final int COMPACT_AFTER_RECORDS = 10_000;
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private int logRecords;
+
+    public FileStudentRepository(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve("students.snapshot");
+        this.logFile = directory.resolve("students.log");
+        truncateTornTail(logFile);
+    }
+
+    @Override
+    public synchronized List<Student> loadAll() throws IOException {
+        LinkedHashMap<String, Student> students = new LinkedHashMap<>();
+        readInto(snapshotFile, students);
+        logRecords = readInto(logFile, students);
+
+        if (logRecords > COMPACT_AFTER_RECORDS) {
+            compact(students.values());
+        }
+        return new ArrayList<>(students.values());
+    }
+
+    @Override
+    public synchronized void saveAll(List<Student> students) throws IOException {
+        StringBuilder records = new StringBuilder();
+        for (Student s : students) {
+            records.append(encode(s)).append('\n');
+        }
+
+        try (FileChannel log = FileChannel.open(logFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long end = log.size();
+            try {
+                log.write(StandardCharsets.UTF_8.encode(records.toString()));
+                log.force(false);
+            } catch (IOException e) {
+                log.truncate(end); // a half-written batch must not become the start of the next one
+                throw e;
+            }
+        }
+
+        logRecords += students.size();
+        if (logRecords > COMPACT_AFTER_RECORDS) {
+            LinkedHashMap<String, Student> current = new LinkedHashMap<>();
+            readInto(snapshotFile, current);
+            readInto(logFile, current);
+            compact(current.values());
+        }
+    }
+
+    // Sizes and modification times of both files; every save appends to the log and every compaction rewrites the snapshot
+    @Override
+    public synchronized long version() {
+        try {
+            long v = 1;
+            for (Path f : List.of(snapshotFile, logFile)) {
+                boolean exists = Files.exists(f);
+                v = v * 31 + (exists ? Files.size(f) : -1);
+                v = v * 31 + (exists ? Files.getLastModifiedTime(f).toMillis() : -1);
+            }
+            return v & Long.MAX_VALUE;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // Writes all students to a new snapshot, swaps it in atomically, then empties the log
+    private void compact(Collection<Student> students) throws IOException {
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Student s : students) {
+                out.write(encode(s));
+                out.newLine();
+            }
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(logFile);
+        logRecords = 0;
+    }
+
+    // Cuts the log back to just after its last newline, dropping a record a crash left half written
+    static void truncateTornTail(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel log = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = log.size();
+            ByteBuffer block = ByteBuffer.allocate(8192);
+            long end = size;
+            while (end > 0) {
+                int length = (int) Math.min(block.capacity(), end);
+                block.clear().limit(length);
+                long from = end - length;
+                while (block.hasRemaining()) {
+                    if (log.read(block, from + block.position()) < 0) {
+                        throw new IOException("log shrank while being read: " + file);
+                    }
+                }
+                for (int i = length - 1; i >= 0; i--) {
+                    if (block.get(i) == '\n') {
+                        truncateTo(log, file, from + i + 1, size);
+                        return;
+                    }
+                }
+                end = from;
+            }
+            truncateTo(log, file, 0, size);
+        }
+    }
+
+    private static void truncateTo(FileChannel log, Path file, long length, long size) throws IOException {
+        if (length < size) {
+            System.out.println("⚠️ Dropping " + (size - length) + " bytes of a torn record at the end of " + file);
+            log.truncate(length);
+            log.force(false);
+        }
+    }
+
+    // Returns the number of records read; a torn last line from a crash is ignored
+    private static int readInto(Path file, Map<String, Student> students) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        int count = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            Student s = decode(line);
+            if (s != null) {
+                students.put(s.getEmail().toLowerCase(Locale.ROOT), s);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // ====== RECORD FORMAT ======
+    // ID \t email \t first name \t last name \t password \t ISBN,ISBN,... \t copy ID,copy ID,...
+    // Files written before copy IDs were tracked have no last field
+
+    static String encode(Student s) {
+        return s.getID() + "\t" + escape(s.getEmail()) + "\t" + escape(s.getFirstName()) + "\t"
+                + escape(s.getLastName()) + "\t" + escape(s.getPassword()) + "\t"
+                + escape(String.join(",", s.getCurrentBooks())) + "\t"
+                + s.getCurrentCopies().stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    static Student decode(String line) {
+        String[] f = line.split("\t", -1);
+        if (f.length != 6 && f.length != 7) {
+            return null;
+        }
+
+        try {
+            String books = unescape(f[5]);
+            List<String> isbns = books.isEmpty() ? List.of() : Arrays.asList(books.split(","));
+            List<Integer> copies = new ArrayList<>();
+            if (f.length == 7 && !f[6].isEmpty()) {
+                for (String id : f[6].split(",")) {
+                    copies.add(Integer.parseInt(id));
+                }
+            }
+            return new Student(Integer.parseInt(f[0]), unescape(f[4]), unescape(f[1]),
+                    unescape(f[3]), unescape(f[2]), isbns, copies);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static String escape(String value) {
+        if (value == null) return "\\0";
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    static String unescape(String value) {
+        if (value.equals("\\0")) return null;
+
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                out.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
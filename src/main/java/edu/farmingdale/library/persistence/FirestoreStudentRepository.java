@@ -0,0 +1,205 @@
+package edu.farmingdale.library.persistence;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.*;
+import edu.farmingdale.library.FirebaseConfig;
+import edu.farmingdale.library.model.Student;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Students stored in the Firestore "students" collection, keyed by lower-case email
+public class FirestoreStudentRepository implements StudentRepository {
+
+    // Firestore rejects batches with more than 500 writes
+    private static final int MAX_BATCH_WRITES = 500;
+
+    // Server time of each student's last save, so watchers can ask for changes after a checkpoint
+    private static final String UPDATED_AT = "updatedAt";
+
+    // Documents per query page; a page is fetched, decoded and handed over before it is dropped
+    private static final int PAGE_SIZE = 1000;
+
+    // Key ranges read at once, each walking its own page cursor
+    private static final int PARTITIONS = Integer.getInteger("library.studentLoadPartitions", 4);
+
+    private static final int PROGRESS_EVERY_PAGES = 20;
+
+    @Override
+    public List<Student> loadAll() throws Exception {
+        List<Student> loaded = Collections.synchronizedList(new ArrayList<>());
+        loadPages(loaded::addAll);
+        return new ArrayList<>(loaded);
+    }
+
+    /**
+     * Splits the collection into key ranges with a partitioned query and reads
+     * each range on its own thread, one cursor-paged query at a time. The next
+     * page is requested before the current one is decoded, so every range keeps
+     * a page in flight while it decodes.
+     */
+    @Override
+    public void loadPages(Consumer<List<Student>> pages) throws Exception {
+        Firestore db = db();
+        long start = System.nanoTime();
+
+        // A collection group query also covers "students" subcollections; this app only has the top-level one
+        List<QueryPartition> partitions = db.collectionGroup("students").getPartitions(PARTITIONS).get();
+
+        AtomicInteger pageCount = new AtomicInteger();
+        AtomicInteger studentCount = new AtomicInteger();
+        AtomicLong decodeNanos = new AtomicLong();
+        ExecutorService readers = Executors.newFixedThreadPool(Math.max(1, Math.min(PARTITIONS, partitions.size())), r -> {
+            Thread t = new Thread(r, "student-load");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> ranges = new ArrayList<>();
+            for (QueryPartition partition : partitions) {
+                ranges.add(readers.submit(() -> {
+                    readRange(partition.createQuery(), pages, pageCount, studentCount, decodeNanos, start);
+                    return null;
+                }));
+            }
+            for (Future<?> range : ranges) {
+                range.get();
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+
+        System.out.println("✅ Read " + studentCount.get() + " students in " + pageCount.get() + " pages from "
+                + partitions.size() + " ranges in " + (System.nanoTime() - start) / 1_000_000 + " ms ("
+                + decodeNanos.get() / 1_000_000 + " ms decoding).");
+    }
+
+    private static void readRange(Query range, Consumer<List<Student>> pages, AtomicInteger pageCount,
+                                  AtomicInteger studentCount, AtomicLong decodeNanos, long start) throws Exception {
+        ApiFuture<QuerySnapshot> next = range.limit(PAGE_SIZE).get();
+        while (next != null) {
+            List<QueryDocumentSnapshot> docs = next.get().getDocuments();
+            next = (docs.size() < PAGE_SIZE) ? null
+                    : range.startAfter(docs.get(docs.size() - 1)).limit(PAGE_SIZE).get();
+
+            long decodeStart = System.nanoTime();
+            List<Student> page = new ArrayList<>(docs.size());
+            for (QueryDocumentSnapshot doc : docs) {
+                page.add(decode(doc));
+            }
+            decodeNanos.addAndGet(System.nanoTime() - decodeStart);
+            pages.accept(page);
+
+            int loaded = studentCount.addAndGet(page.size());
+            if (pageCount.incrementAndGet() % PROGRESS_EVERY_PAGES == 0) {
+                System.out.println("⏳ Loaded " + loaded + " students so far ("
+                        + (System.nanoTime() - start) / 1_000_000 + " ms).");
+            }
+        }
+    }
+
+    // Reads the fields Firestore wrote from Student's getters, without reflection
+    static Student decode(DocumentSnapshot doc) {
+        Long id = doc.getLong("id");
+        String email = doc.getString("email");
+        List<String> isbns = new ArrayList<>();
+        if (doc.get("currentBooks") instanceof List<?> books) {
+            for (Object isbn : books) {
+                if (isbn instanceof String s) isbns.add(s);
+            }
+        }
+        List<Integer> copies = new ArrayList<>();
+        if (doc.get("currentCopies") instanceof List<?> ids) {
+            for (Object copyId : ids) {
+                if (copyId instanceof Number n) copies.add(n.intValue());
+            }
+        }
+        return new Student(id == null ? 0 : id.intValue(), doc.getString("password"),
+                email == null ? doc.getId() : email, doc.getString("lastName"), doc.getString("firstName"), isbns, copies);
+    }
+
+    // One write per student, so a batch of up to 500 students is a single commit
+    @Override
+    public int commitSize() {
+        return MAX_BATCH_WRITES;
+    }
+
+    @Override
+    public void saveAll(List<Student> students) throws Exception {
+        Firestore db = db();
+        // Commits in order; if one fails, the ones before it stay saved
+        for (int from = 0; from < students.size(); from += MAX_BATCH_WRITES) {
+            WriteBatch writes = db.batch();
+            for (Student student : students.subList(from, Math.min(from + MAX_BATCH_WRITES, students.size()))) {
+                DocumentReference doc = db.collection("students").document(student.getEmail().toLowerCase(Locale.ROOT));
+                writes.set(doc, encode(student));
+            }
+            writes.commit().get();
+        }
+    }
+
+    // The fields decode() reads, plus the save's server time, so each student is one write and never lacks a timestamp
+    static Map<String, Object> encode(Student student) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("id", student.getID());
+        fields.put("password", student.getPassword());
+        fields.put("email", student.getEmail());
+        fields.put("lastName", student.getLastName());
+        fields.put("firstName", student.getFirstName());
+        fields.put("currentBooks", new ArrayList<>(student.getCurrentBooks()));
+        fields.put("currentCopies", new ArrayList<>(student.getCurrentCopies()));
+        fields.put(UPDATED_AT, FieldValue.serverTimestamp());
+        return fields;
+    }
+
+    // Records saved before timestamps were added only show up in loadAll, not in a watch with a checkpoint
+    @Override
+    public AutoCloseable watch(long sinceMillis, ChangeListener listener, Consumer<Exception> onError) {
+        Query query = db().collection("students");
+        if (sinceMillis > 0) {
+            query = query.whereGreaterThan(UPDATED_AT, Timestamp.ofTimeMicroseconds(sinceMillis * 1000));
+        }
+
+        ListenerRegistration registration = query.addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                onError.accept(error);
+                return;
+            }
+            if (snapshot == null || snapshot.getDocumentChanges().isEmpty()) {
+                return;
+            }
+
+            List<StudentChange> changes = new ArrayList<>(snapshot.getDocumentChanges().size());
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                QueryDocumentSnapshot doc = change.getDocument();
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    changes.add(new StudentChange(StudentChange.Type.DELETED, doc.getId(), null));
+                } else {
+                    changes.add(new StudentChange(StudentChange.Type.SAVED, doc.getId(), decode(doc)));
+                }
+            }
+            Timestamp readTime = snapshot.getReadTime();
+            listener.onChanges(changes, readTime.getSeconds() * 1000 + readTime.getNanos() / 1_000_000);
+        });
+        return registration::remove;
+    }
+
+    private static Firestore db() {
+        Firestore db = FirebaseConfig.getDB();
+        if (db == null) {
+            throw new IllegalStateException("Firebase is not configured");
+        }
+        return db;
+    }
+}
@@ -0,0 +1,15 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Hold;
+
+import java.util.List;
+
+// Where holds are kept between runs
+public interface HoldRepository {
+
+    // Holds still waiting or ready, in the order they were placed
+    List<Hold> loadActive() throws Exception;
+
+    // Records the current state of each hold; holds that have ended need not be kept
+    void saveAll(List<Hold> holds) throws Exception;
+}
@@ -0,0 +1,21 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A fixed catalog supplied by the caller; for offline runs and benchmarks
+public class InMemoryCatalogRepository implements CatalogRepository {
+
+    private final List<Book> books;
+
+    public InMemoryCatalogRepository(List<Book> books) {
+        this.books = new ArrayList<>(books);
+    }
+
+    @Override
+    public List<Book> loadBooks() {
+        return new ArrayList<>(books);
+    }
+}
@@ -0,0 +1,30 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Student;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+
+// Keeps students in memory only; for offline runs and benchmarks
+public class InMemoryStudentRepository implements StudentRepository {
+
+    private final LinkedHashMap<String, Student> students = new LinkedHashMap<>();
+
+    @Override
+    public synchronized List<Student> loadAll() {
+        List<Student> copies = new ArrayList<>(students.size());
+        for (Student s : students.values()) {
+            copies.add(new Student(s));
+        }
+        return copies;
+    }
+
+    @Override
+    public synchronized void saveAll(List<Student> batch) {
+        for (Student s : batch) {
+            students.put(s.getEmail().toLowerCase(Locale.ROOT), new Student(s));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Student;
+
+// A student record saved or deleted in the store, possibly by another desk; key is the lower-case email
+public record StudentChange(Type type, String key, Student student) {
+
+    public enum Type {
+        SAVED,
+        DELETED     // student is null
+    }
+}
@@ -0,0 +1,49 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Student;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Where student accounts are loaded from and saved to
+public interface StudentRepository {
+
+    @FunctionalInterface
+    interface ChangeListener {
+        // readTimeMillis is the store's time as of which the changes are complete
+        void onChanges(List<StudentChange> changes, long readTimeMillis);
+    }
+
+    List<Student> loadAll() throws Exception;
+
+    // Hands students over a page at a time so a large store never sits in memory twice; pages may arrive on several threads at once
+    default void loadPages(Consumer<List<Student>> pages) throws Exception {
+        pages.accept(loadAll());
+    }
+
+    // Saves every student in the batch; implementations should make this one round trip where they can
+    void saveAll(List<Student> students) throws Exception;
+
+    default void save(Student student) throws Exception {
+        saveAll(List.of(student));
+    }
+
+    // Most students saveAll writes in one all-or-nothing commit; a larger batch is split and can half succeed
+    default int commitSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    // Changes whenever the stored students do, so a copy taken earlier can be checked; -1 if the store cannot tell cheaply
+    default long version() {
+        return -1;
+    }
+
+    /**
+     * Streams changes saved since the given time, starting with everything
+     * changed after it. Closing the handle stops the stream. A store that only
+     * this process writes to has nothing to watch and returns null.
+     */
+    default AutoCloseable watch(long sinceMillis, ChangeListener listener, Consumer<Exception> onError) {
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.persistence.FileHoldRepository;
+import edu.farmingdale.library.persistence.InMemoryCatalogRepository;
+import edu.farmingdale.library.persistence.InMemoryStudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// One title with one copy, lent out, with two students in line for it
+class HoldServiceTest {
+
+    private static final String ISBN = "9780000001000";
+    // Default pickup window, plus a couple of deadline ticks so the timer has fired
+    private static final long PAST_PICKUP = 72 * 3_600_000L + 120_000;
+
+    @TempDir
+    Path dir;
+
+    private final InMemoryStudentRepository roster = new InMemoryStudentRepository();
+    private Library library;
+    private Book copy;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        List<Student> accounts = new ArrayList<>();
+        for (String name : List.of("ann", "bob", "cat")) {
+            accounts.add(new Student(accounts.size(), "pw", name + "@farmingdale.edu", "Last", name, List.of()));
+        }
+        roster.saveAll(accounts);
+        library = open();
+
+        assertTrue(library.getLoanService().borrow(student("ann"), copy).isSuccess());
+        HoldService holds = library.getHoldService();
+        assertTrue(holds.placeHold(student("bob"), ISBN).isSuccess());
+        assertTrue(holds.placeHold(student("cat"), ISBN).isSuccess());
+    }
+
+    @AfterEach
+    void tearDown() {
+        library.shutdown();
+    }
+
+    @Test
+    void returnedCopyGoesDownTheLineAsPickupsExpire() {
+        HoldService holds = library.getHoldService();
+        assertTrue(library.getLoanService().returnBook(student("ann"), copy).isSuccess());
+
+        assertTrue(holds.isSetAsideFor(student("bob"), copy.getID()));
+        assertFalse(library.isAvailable(copy.getID()));
+        assertTrue(copy.getInLibrary(), "a set-aside copy is in the building, just not on the shelf");
+        assertEquals(1, holds.getQueueLength(ISBN));
+
+        library.expireHolds(System.currentTimeMillis() + PAST_PICKUP);
+        assertTrue(holds.isSetAsideFor(student("cat"), copy.getID()));
+        assertEquals(List.of(), holds.getHolds(student("bob")));
+        assertEquals(0, holds.getQueueLength(ISBN));
+        assertEquals(1, library.getHoldService().queues().studentCount(), "bob's ended hold is forgotten");
+
+        library.expireHolds(System.currentTimeMillis() + 2 * PAST_PICKUP);
+        assertTrue(library.isAvailable(copy.getID()));
+        assertEquals(0, library.getHoldService().queues().studentCount());
+    }
+
+    @Test
+    void readyAndWaitingHoldsSurviveARestart() throws Exception {
+        assertTrue(library.getLoanService().returnBook(student("ann"), copy).isSuccess());
+        library.shutdown();
+
+        library = open();
+        HoldService holds = library.getHoldService();
+        assertTrue(holds.isSetAsideFor(student("bob"), copy.getID()));
+        assertFalse(library.isAvailable(copy.getID()));
+        assertEquals(1, holds.getQueueLength(ISBN));
+
+        // Bob lets it go, so it is set aside for the next in line
+        assertTrue(holds.cancelHold(student("bob"), ISBN).isSuccess());
+        assertTrue(holds.isSetAsideFor(student("cat"), copy.getID()));
+        assertTrue(library.getLoanService().borrow(student("cat"), copy).isSuccess());
+        assertEquals(List.of(), holds.getHolds(student("cat")));
+    }
+
+    // A fresh library over the same roster, catalog and hold files, as after a restart
+    private Library open() throws Exception {
+        List<Book> books = List.of(new Book(0, ISBN, "Title", "Author", true, null));
+        Library opened = new Library(new InMemoryCatalogRepository(books), roster);
+        opened.load();
+        opened.getHoldService().open(new FileHoldRepository(dir));
+        copy = opened.getBookByID(0);
+        return opened;
+    }
+
+    private Student student(String name) {
+        return library.getStudentByEmail(name + "@farmingdale.edu");
+    }
+}
@@ -0,0 +1,164 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.persistence.InMemoryCatalogRepository;
+import edu.farmingdale.library.persistence.InMemoryStudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Many desks borrowing and returning the same copies at once
+class LibraryConcurrencyTest {
+
+    private static final int TITLES = 20;
+    private static final int COPIES_PER_TITLE = 3;
+    private static final int THREADS = 16;
+    private static final int OPERATIONS = 5_000;
+
+    private Library library;
+    private List<Book> copies;
+    private List<Student> students;
+
+    @BeforeEach
+    void setUp() {
+        List<Book> books = new ArrayList<>();
+        for (int t = 0; t < TITLES; t++) {
+            for (int c = 0; c < COPIES_PER_TITLE; c++) {
+                books.add(new Book(books.size(), "978000000" + (1000 + t), "Title " + t, "Author " + t, true, null));
+            }
+        }
+        InMemoryStudentRepository roster = new InMemoryStudentRepository();
+        List<Student> accounts = new ArrayList<>();
+        for (int s = 0; s < THREADS; s++) {
+            accounts.add(new Student(s, "pw", "student" + s + "@farmingdale.edu", "Last" + s, "First" + s, List.of()));
+        }
+        roster.saveAll(accounts);
+
+        library = new Library(new InMemoryCatalogRepository(books), roster);
+        library.load();
+        copies = new ArrayList<>(library.getBooksSortedByID());
+        students = new ArrayList<>();
+        for (Student s : accounts) {
+            students.add(library.getStudentByEmail(s.getEmail()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        library.shutdown();
+    }
+
+    @Test
+    void checkOutAndCheckInNeverLendACopyTwice() throws Exception {
+        AtomicReferenceArray<Student> owner = new AtomicReferenceArray<>(copies.size());
+        AtomicInteger doubleLends = new AtomicInteger();
+        AtomicInteger failedReturns = new AtomicInteger();
+        LocalDate due = LocalDate.now().plusDays(14);
+
+        runOnAllThreads(t -> {
+            Student student = students.get(t);
+            List<Book> held = new ArrayList<>();
+            SplittableRandom random = new SplittableRandom(t);
+            for (int i = 0; i < OPERATIONS; i++) {
+                if (held.isEmpty() || random.nextInt(3) > 0) {
+                    Book book = copies.get(random.nextInt(copies.size()));
+                    if (library.checkOut(book, student, due)) {
+                        if (!owner.compareAndSet(book.getID(), null, student)) {
+                            doubleLends.incrementAndGet();
+                        }
+                        held.add(book);
+                    }
+                } else {
+                    Book book = held.remove(random.nextInt(held.size()));
+                    // Cleared first: once checked in, another thread may lend it straight away
+                    owner.set(book.getID(), null);
+                    if (!library.checkIn(book, student)) {
+                        failedReturns.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        assertEquals(0, doubleLends.get(), "copies lent to two students at once");
+        assertEquals(0, failedReturns.get(), "students could not return copies they held");
+        assertConsistent();
+    }
+
+    @Test
+    void checkOutAnyCopyHandsOutEachCopyOnce() throws Exception {
+        String isbn = copies.get(0).getISBN();
+        ConcurrentLinkedQueue<Book> lent = new ConcurrentLinkedQueue<>();
+        LocalDate due = LocalDate.now().plusDays(14);
+
+        runOnAllThreads(t -> {
+            Book book = library.checkOutAnyCopy(isbn, students.get(t), due);
+            if (book != null) {
+                lent.add(book);
+            }
+        });
+
+        assertEquals(COPIES_PER_TITLE, lent.size());
+        assertEquals(COPIES_PER_TITLE, lent.stream().mapToInt(Book::getID).distinct().count());
+        assertEquals(0, library.countAvailableCopies(isbn));
+        assertConsistent();
+    }
+
+    // Every copy is either on the shelf or on exactly one student's record, and the counts agree
+    private void assertConsistent() {
+        int onLoan = 0;
+        for (Book book : copies) {
+            if (book.getInLibrary()) {
+                assertTrue(library.isAvailable(book.getID()), "copy " + book.getID() + " is in but not available");
+                assertNull(book.getPossesion());
+            } else {
+                onLoan++;
+                assertFalse(library.isAvailable(book.getID()), "copy " + book.getID() + " is out but available");
+                assertNotNull(book.getPossesion());
+                assertTrue(book.getPossesion().getCurrentCopies().contains(book.getID()),
+                        "copy " + book.getID() + " is missing from its holder's record");
+            }
+        }
+        int recorded = 0;
+        for (Student student : students) {
+            assertEquals(student.getCurrentCopies().size(), student.getCurrentBooks().size());
+            recorded += student.getCurrentCopies().size();
+        }
+        assertEquals(onLoan, recorded);
+        assertEquals(copies.size() - onLoan, library.countAvailable());
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runOnAllThreads(Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                done.add(pool.submit(() -> {
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : done) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
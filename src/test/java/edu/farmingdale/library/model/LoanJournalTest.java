@@ -0,0 +1,104 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.persistence.InMemoryCatalogRepository;
+import edu.farmingdale.library.persistence.InMemoryStudentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanJournalTest {
+
+    private static final String ISBN = "9780000001000";
+    private static final String ANN = "ann@farmingdale.edu";
+
+    @TempDir
+    Path dir;
+
+    private final InMemoryStudentRepository store = new InMemoryStudentRepository();
+
+    // Two desks over one student store; only the first keeps a journal
+    @Test
+    void savedBorrowIsNotReplayedOverAReturnAtAnotherDesk() throws Exception {
+        store.saveAll(List.of(new Student(0, "pw", ANN, "Last", "Ann", List.of())));
+
+        Library first = open(true);
+        assertTrue(first.getLoanService().borrow(first.getStudentByEmail(ANN), first.getBookByID(0)).isSuccess());
+        first.shutdown();
+
+        Library second = open(false);
+        assertTrue(second.getLoanService().returnBook(second.getStudentByEmail(ANN), second.getBookByID(0)).isSuccess());
+        second.shutdown();
+
+        Library restarted = open(true);
+        assertTrue(restarted.isAvailable(0), "the borrow was saved, so the other desk's return stands");
+        assertEquals(List.of(), restarted.getStudentByEmail(ANN).getCurrentBooks());
+        restarted.shutdown();
+        assertEquals(List.of(), store.loadAll().get(0).getCurrentBooks());
+    }
+
+    @Test
+    void unsavedBorrowIsRecovered() throws Exception {
+        store.saveAll(List.of(new Student(0, "pw", ANN, "Last", "Ann", List.of())));
+        // The store is unreachable, so the borrow only reaches the journal
+        Library crashed = new Library(new InMemoryCatalogRepository(catalog()), new InMemoryStudentRepository() {
+            @Override
+            public List<Student> loadAll() {
+                return store.loadAll();
+            }
+
+            @Override
+            public void saveAll(List<Student> batch) {
+                throw new IllegalStateException("offline");
+            }
+        });
+        crashed.load();
+        crashed.openJournal(dir.resolve("loans.journal"));
+        assertTrue(crashed.getLoanService().borrow(crashed.getStudentByEmail(ANN), crashed.getBookByID(0)).isSuccess());
+        crashed.shutdown();
+
+        Library restarted = open(true);
+        assertFalse(restarted.isAvailable(0));
+        assertEquals(List.of(ISBN), restarted.getStudentByEmail(ANN).getCurrentBooks());
+        restarted.shutdown();
+    }
+
+    @Test
+    void compactionMovesToTheNextSegmentAndKeepsTheLastEventPerCopy() throws Exception {
+        Path file = dir.resolve("loans.journal");
+        // A 4 KB segment, synced and checked for compaction every millisecond
+        LoanJournal journal = new LoanJournal(file, 4096, 1);
+        for (int i = 0; i < 300; i++) {
+            journal.append(LoanJournal.Type.RENEW, i % 3, ISBN, ANN, journal.nextSeq(), i);
+        }
+        for (int waited = 0; Files.exists(dir.resolve("loans.journal.1")) && waited < 5_000; waited += 10) {
+            Thread.sleep(10);
+        }
+        assertFalse(Files.exists(dir.resolve("loans.journal.1")), "the first segment is replaced by a compacted one");
+        journal.close();
+
+        LoanJournal reopened = new LoanJournal(file, 4096, 1);
+        Map<Integer, LoanJournal.Event> last = reopened.getRecovered();
+        assertEquals(List.of(297, 298, 299), List.of(last.get(0).dueDay(), last.get(1).dueDay(), last.get(2).dueDay()));
+        assertTrue(reopened.nextSeq() > 300, "numbering carries on past the replayed events");
+        reopened.close();
+    }
+
+    private Library open(boolean journaled) {
+        Library library = new Library(new InMemoryCatalogRepository(catalog()), store);
+        library.load();
+        if (journaled) {
+            library.openJournal(dir.resolve("loans.journal"));
+        }
+        return library;
+    }
+
+    private static List<Book> catalog() {
+        return List.of(new Book(0, ISBN, "Title", "Author", true, null));
+    }
+}
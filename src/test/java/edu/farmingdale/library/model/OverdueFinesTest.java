@@ -0,0 +1,182 @@
+package edu.farmingdale.library.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Tally arithmetic against a plain per-loan count, across rollover, renewals and returns
+class OverdueFinesTest {
+
+    private static final int START = (int) LocalDate.of(2026, 1, 1).toEpochDay();
+    private static final long RATE = 25;
+    private static final long CAP = 100; // reached on the fourth day overdue
+
+    private final DayClock clock = new DayClock(START);
+    private final DueDateTable dueDates = new DueDateTable();
+    private final Map<Integer, Student> holders = new HashMap<>();
+    private final Student ann = student("ann@farmingdale.edu");
+    private final Student bob = student("bob@farmingdale.edu");
+
+    @Test
+    void fineGrowsDailyUntilTheCap() {
+        OverdueFines fines = fines(RATE, CAP);
+        lend(fines, 1, ann, START);
+
+        long[] expected = {0, 25, 50, 75, 100, 100, 100};
+        for (int day = 0; day < expected.length; day++) {
+            clock.day = START + day;
+            fines.rollOver();
+            assertEquals(expected[day], fines.getFineCents(ann), "day " + day);
+        }
+        assertEquals(1, fines.getOverdueCount(ann));
+    }
+
+    @Test
+    void renewingAndReturningTakeTheLoanOffTheTally() {
+        OverdueFines fines = fines(RATE, CAP);
+        lend(fines, 1, ann, START);
+        lend(fines, 2, ann, START + 1);
+        clock.day = START + 3;
+        fines.rollOver();
+        assertEquals(75 + 50, fines.getFineCents(ann));
+
+        // Renewed, but still overdue by a day
+        fines.setDueDate(1, START + 2);
+        assertEquals(25 + 50, fines.getFineCents(ann));
+        assertEquals(2, fines.getOverdueCount(ann));
+
+        // Renewed into the future
+        fines.setDueDate(2, START + 10);
+        assertEquals(25, fines.getFineCents(ann));
+        assertEquals(1, fines.getOverdueCount(ann));
+
+        giveBack(fines, 1);
+        assertEquals(0, fines.getFineCents(ann));
+        assertEquals(0, fines.getStudentsOverdue());
+    }
+
+    @Test
+    void rolloverMatchesARecountAndThePerLoanSum() {
+        OverdueFines fines = fines(RATE, CAP);
+        SplittableRandom random = new SplittableRandom(23);
+        List<Integer> open = new ArrayList<>();
+        int nextId = 0;
+
+        for (int day = 0; day < 40; day++) {
+            clock.day = START + day;
+            fines.rollOver();
+            for (int i = 0; i < 5; i++) {
+                int op = random.nextInt(4);
+                if (op < 2 || open.isEmpty()) {
+                    int id = nextId++;
+                    lend(fines, id, random.nextBoolean() ? ann : bob, clock.day - 6 + random.nextInt(10));
+                    open.add(id);
+                } else if (op == 2) {
+                    fines.setDueDate(open.get(random.nextInt(open.size())), clock.day - 6 + random.nextInt(12));
+                } else {
+                    giveBack(fines, open.remove(random.nextInt(open.size())));
+                }
+            }
+            assertEquals(expectedCents(ann, RATE, CAP), fines.getFineCents(ann), "ann, day " + day);
+            assertEquals(expectedCents(bob, RATE, CAP), fines.getFineCents(bob), "bob, day " + day);
+        }
+
+        long annBefore = fines.getFineCents(ann);
+        long bobBefore = fines.getFineCents(bob);
+        fines.recount();
+        assertEquals(annBefore, fines.getFineCents(ann));
+        assertEquals(bobBefore, fines.getFineCents(bob));
+    }
+
+    @Test
+    void longGapRecountsToTheSameFines() {
+        OverdueFines fines = fines(RATE, CAP);
+        lend(fines, 1, ann, START);
+        lend(fines, 2, bob, START + 30);
+
+        clock.day = START + 33;
+        fines.rollOver();
+        assertEquals(100, fines.getFineCents(ann));
+        assertEquals(75, fines.getFineCents(bob));
+    }
+
+    @Test
+    void zeroRateCountsOverdueLoansWithoutFines() {
+        OverdueFines fines = fines(0, CAP);
+        lend(fines, 1, ann, START);
+
+        for (int day = 1; day <= 10; day++) {
+            clock.day = START + day;
+            fines.rollOver();
+            assertEquals(0, fines.getFineCents(ann));
+            assertEquals(1, fines.getOverdueCount(ann));
+        }
+        giveBack(fines, 1);
+        assertEquals(0, fines.getOverdueCount(ann));
+    }
+
+    private OverdueFines fines(long centsPerDay, long capCents) {
+        return new OverdueFines(dueDates, holders::get, clock, centsPerDay, capCents);
+    }
+
+    // The holder is set before the due date, as Library does
+    private void lend(OverdueFines fines, int copyId, Student student, int dueDay) {
+        holders.put(copyId, student);
+        fines.setDueDate(copyId, dueDay);
+    }
+
+    private void giveBack(OverdueFines fines, int copyId) {
+        fines.setDueDate(copyId, DueDateTable.NO_DATE);
+        holders.remove(copyId);
+    }
+
+    private long expectedCents(Student student, long rate, long cap) {
+        long total = 0;
+        for (Map.Entry<Integer, Student> loan : holders.entrySet()) {
+            int due = dueDates.get(loan.getKey());
+            if (loan.getValue() == student && due != DueDateTable.NO_DATE && due < clock.day) {
+                total += Math.min(cap, rate * (clock.day - due));
+            }
+        }
+        return total;
+    }
+
+    private static Student student(String email) {
+        return new Student(0, "pw", email, "Last", "First", new ArrayList<>());
+    }
+
+    // Midday on whichever day the test sets
+    private static final class DayClock extends Clock {
+        int day;
+
+        DayClock(int day) {
+            this.day = day;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochSecond(day * 86_400L + 43_200L);
+        }
+    }
+}
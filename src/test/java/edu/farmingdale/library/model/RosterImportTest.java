@@ -0,0 +1,65 @@
+package edu.farmingdale.library.model;
+
+import edu.farmingdale.library.persistence.InMemoryCatalogRepository;
+import edu.farmingdale.library.persistence.InMemoryStudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterImportTest {
+
+    private Library library;
+
+    @AfterEach
+    void tearDown() {
+        if (library != null) {
+            library.shutdown();
+        }
+    }
+
+    // A store that commits three students at a time and fails its second commit
+    private static final class FlakyStore extends InMemoryStudentRepository {
+        private final AtomicInteger commits = new AtomicInteger();
+
+        @Override
+        public int commitSize() {
+            return 3;
+        }
+
+        @Override
+        public synchronized void saveAll(List<Student> batch) {
+            assertTrue(batch.size() <= commitSize(), "import batches stay within one commit");
+            if (commits.incrementAndGet() == 2) {
+                throw new IllegalStateException("commit rejected");
+            }
+            super.saveAll(batch);
+        }
+    }
+
+    @Test
+    void failedCommitFailsOnlyItsOwnRows() throws Exception {
+        library = new Library(new InMemoryCatalogRepository(List.of()), new FlakyStore());
+        library.load();
+
+        StringBuilder roster = new StringBuilder("First Name,Last Name,Email,Password\n");
+        for (int i = 0; i < 9; i++) {
+            roster.append("Ann,Lee,lee").append(i).append("@farmingdale.edu,Secret#").append(i).append("Pw\n");
+        }
+        // One writer, so the commits happen in roster order
+        RosterImport.Report report = new RosterImport(library, 1).run(new StringReader(roster.toString()));
+
+        assertEquals(6, report.count(RosterImport.Outcome.CREATED));
+        assertEquals(3, report.count(RosterImport.Outcome.FAILED));
+        List<Long> failedLines = report.getProblems().stream().map(RosterImport.RowResult::line).toList();
+        assertEquals(List.of(5L, 6L, 7L), failedLines);
+        for (int i = 0; i < 9; i++) {
+            boolean committed = i < 3 || i >= 6;
+            assertEquals(committed, library.emailExists("lee" + i + "@farmingdale.edu"), "student " + i);
+        }
+    }
+}
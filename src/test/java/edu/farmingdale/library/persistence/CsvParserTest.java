@@ -0,0 +1,76 @@
+package edu.farmingdale.library.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvParserTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private record Result(List<String> rows, List<CsvParser.Problem> problems) {}
+
+    // Rows as "line: field|field|..." so results from different chunk sizes compare directly
+    private Result parse(String csv, int chunkChars) throws IOException {
+        List<String> rows = new ArrayList<>();
+        List<CsvParser.Problem> problems = new ArrayList<>();
+        CsvParser.parse(new StringReader(csv), chunkChars, pool, 3,
+                row -> rows.add(row.line() + ": " + String.join("|", row.fields())), problems::add);
+        return new Result(rows, problems);
+    }
+
+    @Test
+    void parsesQuotedCommasLineBreaksAndDoubledQuotes() throws IOException {
+        Result result = parse("ISBN,Title,Author\n"
+                + "1,\"Hello, World\",\"Says \"\"hi\"\"\"\n"
+                + "2,\"Two\nLines\",B\r\n"
+                + "3,C,D\n", 1 << 20);
+
+        assertEquals(List.of("1: ISBN|Title|Author", "2: 1|Hello, World|Says \"hi\"", "3: 2|Two\nLines|B", "5: 3|C|D"),
+                result.rows());
+        assertTrue(result.problems().isEmpty());
+    }
+
+    @Test
+    void strayQuoteDoesNotSwallowAFollowingMultiLineField() throws IOException {
+        String csv = "ISBN,Title,Author\n"
+                + "1,The 12\" Ruler,Smith\n"
+                + "2,\"A title\nover, three\nlines\",Jones\n"
+                + "3,Plain,Brown\n"
+                + "4,\"Quote \"\" inside\",Lee\n";
+
+        Result whole = parse(csv, 1 << 20);
+        assertEquals(List.of("1: ISBN|Title|Author", "3: 2|A title\nover, three\nlines|Jones", "6: 3|Plain|Brown",
+                "7: 4|Quote \" inside|Lee"), whole.rows());
+        assertEquals(1, whole.problems().size());
+        assertEquals(2, whole.problems().get(0).line());
+
+        // Chunks are cut wherever the splitter sees a record end; every cut must give the same rows
+        for (int chunkChars = 1; chunkChars <= csv.length(); chunkChars++) {
+            Result split = parse(csv, chunkChars);
+            assertEquals(whole.rows(), split.rows(), "chunk size " + chunkChars);
+            assertEquals(whole.problems(), split.problems(), "chunk size " + chunkChars);
+        }
+    }
+
+    @Test
+    void reportsUnterminatedQuoteAtItsRecord() throws IOException {
+        Result result = parse("1,A,B\n2,\"never closed,C\n3,D,E\n", 8);
+
+        assertEquals(List.of("1: 1|A|B"), result.rows());
+        assertEquals(List.of(new CsvParser.Problem(2, "unterminated quoted field")), result.problems());
+    }
+}
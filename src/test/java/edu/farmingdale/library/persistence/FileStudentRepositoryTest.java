@@ -0,0 +1,39 @@
+package edu.farmingdale.library.persistence;
+
+import edu.farmingdale.library.model.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStudentRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void saveAfterATornRecordStartsItsOwnLine() throws IOException {
+        new FileStudentRepository(dir).saveAll(List.of(student(1, "ann@farmingdale.edu")));
+        // A crash halfway through the next record
+        Files.writeString(dir.resolve("students.log"), "2\tbob@farmingdale.edu\tBob\tB",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        FileStudentRepository reopened = new FileStudentRepository(dir);
+        reopened.saveAll(List.of(student(3, "cat@farmingdale.edu")));
+
+        List<String> emails = reopened.loadAll().stream().map(Student::getEmail).toList();
+        assertEquals(List.of("ann@farmingdale.edu", "cat@farmingdale.edu"), emails);
+    }
+
+    private static Student student(int id, String email) {
+        return new Student(id, "pw", email, "Last", "First", new ArrayList<>());
+    }
+}
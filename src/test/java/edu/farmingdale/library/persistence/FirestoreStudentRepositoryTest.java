@@ -0,0 +1,74 @@
+package edu.farmingdale.library.persistence;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import edu.farmingdale.library.FirebaseConfig;
+import edu.farmingdale.library.model.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the Firestore emulator: firebase emulators:start --only firestore, then set FIRESTORE_EMULATOR_HOST
+@EnabledIfEnvironmentVariable(named = "FIRESTORE_EMULATOR_HOST", matches = ".+")
+class FirestoreStudentRepositoryTest {
+
+    private final FirestoreStudentRepository repository = new FirestoreStudentRepository();
+
+    private static Student student(String name) {
+        String email = name + "-" + UUID.randomUUID() + "@farmingdale.edu";
+        return new Student(7, "secret", email, "Last", name, List.of("9780000000001"), List.of(42));
+    }
+
+    @Test
+    void saveWritesTheRecordAndItsTimestampTogether() throws Exception {
+        Student saved = student("Ada");
+        repository.saveAll(List.of(saved));
+
+        DocumentSnapshot doc = FirebaseConfig.getDB().collection("students")
+                .document(saved.getEmail().toLowerCase()).get().get();
+        assertNotNull(doc.getTimestamp("updatedAt"));
+
+        Student read = FirestoreStudentRepository.decode(doc);
+        assertEquals(saved.getEmail(), read.getEmail());
+        assertEquals(saved.getID(), read.getID());
+        assertEquals(saved.getCurrentBooks(), read.getCurrentBooks());
+        assertEquals(saved.getCurrentCopies(), read.getCurrentCopies());
+    }
+
+    @Test
+    void watchStreamsOnlyChangesSavedAfterTheCheckpoint() throws Exception {
+        Student before = student("Before");
+        repository.saveAll(List.of(before));
+        Thread.sleep(50);
+        long checkpoint = System.currentTimeMillis();
+        Thread.sleep(50);
+
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        Student after = student("After");
+        CountDownLatch arrived = new CountDownLatch(1);
+        AutoCloseable stream = repository.watch(checkpoint, (changes, readTime) -> {
+            for (StudentChange change : changes) {
+                seen.add(change.key());
+                if (change.key().equalsIgnoreCase(after.getEmail())) {
+                    assertEquals(StudentChange.Type.SAVED, change.type());
+                    assertEquals(after.getCurrentCopies(), change.student().getCurrentCopies());
+                    arrived.countDown();
+                }
+            }
+        }, e -> fail(e));
+        try {
+            repository.saveAll(List.of(after));
+            assertTrue(arrived.await(10, TimeUnit.SECONDS), "saved student was not streamed");
+            assertFalse(seen.contains(before.getEmail().toLowerCase()), "a save older than the checkpoint was streamed");
+        } finally {
+            stream.close();
+        }
+    }
+}